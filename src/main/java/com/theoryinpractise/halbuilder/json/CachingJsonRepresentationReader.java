@@ -0,0 +1,157 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A JsonRepresentationReader which shares one parsed representation between identical documents.
+ *
+ * PersistentRepresentations are immutable, so a document which has been read before is answered from a cache keyed
+ * by a 128 bit hash of its characters, or of its bytes when read from bytes. Byte reads have no content, as with
+ * every JsonRepresentationReader, so they are cached apart from character reads of the same document. The cache is
+ * bounded by the total number of characters and bytes of the documents it holds, evicting the least recently used
+ * first, and hits are confirmed against the cached document so a hash collision can never return the wrong
+ * representation. A colliding document is counted as a miss in {@link #stats()}.
+ */
+public class CachingJsonRepresentationReader
+    extends JsonRepresentationReader {
+
+  private final HashFunction hashFunction;
+  private final Cache<HashCode, Entry> cache;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public CachingJsonRepresentationReader(AbstractRepresentationFactory representationFactory, long maximumCharacters) {
+    this(representationFactory, maximumCharacters, false);
+  }
+
+  public CachingJsonRepresentationReader(AbstractRepresentationFactory representationFactory, long maximumCharacters,
+                                         boolean deduplicateEmbeds) {
+    this(representationFactory, maximumCharacters, deduplicateEmbeds, Hashing.murmur3_128());
+  }
+
+  CachingJsonRepresentationReader(AbstractRepresentationFactory representationFactory, long maximumCharacters,
+                                  boolean deduplicateEmbeds, HashFunction hashFunction) {
+    super(representationFactory, deduplicateEmbeds);
+    this.hashFunction = hashFunction;
+    this.cache = CacheBuilder.newBuilder()
+                             .maximumWeight(maximumCharacters)
+                             .weigher((HashCode key, Entry entry) -> entry.text != null
+                                                                     ? entry.text.length()
+                                                                     : entry.bytes.length)
+                             .recordStats()
+                             .build();
+  }
+
+  @Override
+  public PersistentRepresentation read(Reader reader) {
+    try {
+      return read(CharStreams.toString(reader));
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public PersistentRepresentation read(InputStream inputStream) {
+    try {
+      byte[] source = ByteStreams.toByteArray(inputStream);
+      return read(source, 0, source.length);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public PersistentRepresentation read(byte[] source, int offset, int length) {
+    HashCode key = hashFunction.hashBytes(source, offset, length);
+
+    Entry entry = cache.asMap().get(key);
+    if (entry != null && entry.matches(source, offset, length)) {
+      hits.increment();
+      return entry.representation;
+    }
+
+    misses.increment();
+    PersistentRepresentation representation = super.read(source, offset, length);
+    if (entry != null) {
+      // Colliding documents are parsed every time, the first one read keeps the cache entry
+      return representation;
+    }
+    cache.put(key, new Entry(null, Arrays.copyOfRange(source, offset, offset + length), representation));
+    return representation;
+  }
+
+  @Override
+  PersistentRepresentation read(String source) {
+    HashCode key = hashFunction.hashUnencodedChars(source);
+
+    Entry entry = cache.asMap().get(key);
+    if (entry != null && source.equals(entry.text)) {
+      hits.increment();
+      return entry.representation;
+    }
+
+    misses.increment();
+    PersistentRepresentation representation = super.read(source);
+    if (entry != null) {
+      return representation;
+    }
+    cache.put(key, new Entry(source, null, representation));
+    return representation;
+  }
+
+  /**
+   * Hits and misses as counted by this reader, with the evictions of the underlying cache. Nothing is loaded through
+   * the cache, so the load statistics are always zero.
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, cache.stats().evictionCount());
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * A cached representation with the characters or bytes it was read from.
+   */
+  private static final class Entry {
+    final String text;
+    final byte[] bytes;
+    final PersistentRepresentation representation;
+
+    Entry(String text, byte[] bytes, PersistentRepresentation representation) {
+      this.text = text;
+      this.bytes = bytes;
+      this.representation = representation;
+    }
+
+    boolean matches(byte[] source, int offset, int length) {
+      if (bytes == null || bytes.length != length) {
+        return false;
+      }
+      for (int i = 0; i < length; i++) {
+        if (bytes[i] != source[offset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
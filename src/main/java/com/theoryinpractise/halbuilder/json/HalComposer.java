@@ -0,0 +1,253 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.io.Closeables;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import javaslang.Tuple2;
+import javaslang.collection.List;
+import javaslang.collection.Set;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.CURIES;
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.HREF;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+import static com.theoryinpractise.halbuilder.impl.api.Support.NAME;
+
+/**
+ * Composes a HAL+JSON document by splicing upstream HAL+JSON bodies into the {@code _embedded} section of an outer
+ * representation, copying them token by token rather than reading them into representations.
+ *
+ * The outer properties are written first, then the embedded rels in the order they were added, each rel's bodies in
+ * the order they complete, and finally the outer {@code _links}. CURIEs declared by upstream bodies are hoisted into
+ * the outer {@code _links} unless they clash with a namespace already in use, in which case they are left in place.
+ *
+ * When a body fails the output stops where it failed, so it never parses as a complete document, and every body is
+ * closed once available. A composer is not thread safe, and can only be written once.
+ */
+public class HalComposer {
+
+  private static final JsonFactory JSON_FACTORY = JsonRepresentationReader.MAPPER.getFactory();
+
+  private final ReadableRepresentation representation;
+  private final JsonRepresentationWriter writer;
+  private final Map<String, java.util.List<CompletionStage<? extends InputStream>>> bodies = new LinkedHashMap<>();
+
+  public HalComposer(ReadableRepresentation representation) {
+    this(representation, new JsonRepresentationWriter());
+  }
+
+  public HalComposer(ReadableRepresentation representation, JsonRepresentationWriter writer) {
+    this.representation = representation;
+    this.writer = writer;
+  }
+
+  /**
+   * Embed the body under the given rel once it completes.
+   */
+  public HalComposer embed(String rel, CompletionStage<? extends InputStream> body) {
+    if (!representation.getResourcesByRel(rel).isEmpty()) {
+      throw new IllegalArgumentException("Rel " + rel + " is already embedded in the outer representation");
+    }
+    bodies.computeIfAbsent(rel, key -> new ArrayList<>()).add(body);
+    return this;
+  }
+
+  public HalComposer embed(String rel, InputStream body) {
+    return embed(rel, CompletableFuture.completedFuture(body));
+  }
+
+  public HalComposer embed(String rel, byte[] body) {
+    return embed(rel, new ByteArrayInputStream(body));
+  }
+
+  public HalComposer embed(String rel, ByteBuffer body) {
+    return embed(rel, new ByteBufferBackedInputStream(body.duplicate()));
+  }
+
+  public void write(Set<URI> flags, Writer output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      compose(flags, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    } finally {
+      closeBodies();
+    }
+  }
+
+  public void write(Set<URI> flags, OutputStream output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      compose(flags, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    } finally {
+      closeBodies();
+    }
+  }
+
+  /**
+   * Close every body as soon as it is available, including those left unread because an earlier one failed.
+   */
+  private void closeBodies() {
+    for (java.util.List<CompletionStage<? extends InputStream>> relBodies : bodies.values()) {
+      for (CompletionStage<? extends InputStream> body : relBodies) {
+        body.thenAccept(Closeables::closeQuietly);
+      }
+    }
+  }
+
+  private void compose(Set<URI> flags, JsonGenerator g)
+      throws IOException {
+    // A failed body must leave the document unterminated, rather than closed into valid but incomplete JSON
+    g.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+    Map<String, String> namespaces = new HashMap<>();
+    for (Tuple2<String, String> namespace : representation.getNamespaces()) {
+      namespaces.put(namespace._1, namespace._2);
+    }
+    Map<String, String> hoisted = new LinkedHashMap<>();
+
+    g.writeStartObject();
+    writer.renderProperties(flags, g, representation, RenderProjection.FULL);
+
+    if (!bodies.isEmpty() || !representation.getResources().isEmpty()) {
+      g.writeObjectFieldStart(EMBEDDED);
+      writer.renderEmbedded(flags, g, representation, RenderProjection.FULL);
+      for (Map.Entry<String, java.util.List<CompletionStage<? extends InputStream>>> entry : bodies.entrySet()) {
+        writeEmbedded(g, entry.getKey(), entry.getValue(), namespaces, hoisted);
+      }
+      g.writeEndObject();
+    }
+
+    List<Link> curies = List.empty();
+    for (Map.Entry<String, String> curie : hoisted.entrySet()) {
+      curies = curies.append(new Link(CURIES, curie.getValue(), curie.getKey(), null, null, null));
+    }
+    writer.renderLinks(flags, g, representation, false, curies);
+    g.writeEndObject();
+  }
+
+  private void writeEmbedded(JsonGenerator g, String rel, java.util.List<CompletionStage<? extends InputStream>> relBodies,
+                             Map<String, String> namespaces, Map<String, String> hoisted)
+      throws IOException {
+    BlockingQueue<CompletableFuture<? extends InputStream>> completed = new LinkedBlockingQueue<>();
+    for (CompletionStage<? extends InputStream> body : relBodies) {
+      CompletableFuture<? extends InputStream> future = body.toCompletableFuture();
+      future.whenComplete((stream, failure) -> completed.add(future));
+    }
+
+    boolean array = relBodies.size() > 1;
+    if (array) {
+      g.writeArrayFieldStart(rel);
+    } else {
+      g.writeFieldName(rel);
+    }
+    for (int i = 0; i < relBodies.size(); i++) {
+      try {
+        copyResource(completed.take().join(), g, namespaces, hoisted);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RepresentationException("Interrupted waiting for " + rel, e);
+      } catch (RuntimeException e) {
+        throw e instanceof RepresentationException
+              ? e
+              : new RepresentationException("Unable to embed " + rel + ": " + e.getMessage(), e);
+      }
+    }
+    if (array) {
+      g.writeEndArray();
+    }
+  }
+
+  private void copyResource(InputStream body, JsonGenerator g, Map<String, String> namespaces,
+                            Map<String, String> hoisted)
+      throws IOException {
+    try (JsonParser p = JSON_FACTORY.createParser(body)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new RepresentationException("Expected a JSON object at " + p.getCurrentLocation());
+      }
+      g.writeStartObject();
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String name = p.getCurrentName();
+        JsonToken token = p.nextToken();
+        g.writeFieldName(name);
+        if (LINKS.equals(name) && token == JsonToken.START_OBJECT) {
+          copyLinks(p, g, namespaces, hoisted);
+        } else {
+          g.copyCurrentStructure(p);
+        }
+      }
+      g.writeEndObject();
+    }
+  }
+
+  private void copyLinks(JsonParser p, JsonGenerator g, Map<String, String> namespaces, Map<String, String> hoisted)
+      throws IOException {
+    g.writeStartObject();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      p.nextToken();
+      if (CURIES.equals(name)) {
+        JsonNode curies = p.readValueAsTree();
+        if (!hoist(curies, namespaces, hoisted)) {
+          g.writeFieldName(CURIES);
+          g.writeTree(curies);
+        }
+      } else {
+        g.writeFieldName(name);
+        g.copyCurrentStructure(p);
+      }
+    }
+    g.writeEndObject();
+  }
+
+  /**
+   * Move the CURIEs into the outer links, unless any of them would redefine a prefix already in use.
+   */
+  private static boolean hoist(JsonNode curies, Map<String, String> namespaces, Map<String, String> hoisted) {
+    Map<String, String> declared = new LinkedHashMap<>();
+    for (JsonNode curie : curies.isArray() ? curies : Collections.singletonList(curies)) {
+      if (!curie.hasNonNull(NAME) || !curie.hasNonNull(HREF)) {
+        return false;
+      }
+      String name = curie.get(NAME).asText();
+      String href = curie.get(HREF).asText();
+      String existing = namespaces.containsKey(name) ? namespaces.get(name) : hoisted.get(name);
+      if (existing != null && !existing.equals(href)) {
+        return false;
+      }
+      declared.put(name, href);
+    }
+
+    for (Map.Entry<String, String> curie : declared.entrySet()) {
+      if (!namespaces.containsKey(curie.getKey())) {
+        hoisted.put(curie.getKey(), curie.getValue());
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,519 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.Tuple2;
+import javaslang.collection.List;
+import javaslang.collection.Set;
+import javaslang.control.Option;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+
+/**
+ * Writes the difference between two representations as an RFC 6902 JSON Patch or an RFC 7396 JSON Merge Patch,
+ * which applied to the HAL+JSON rendering of the first gives the rendering of the second.
+ *
+ * The two representations are walked in step. Properties are compared by value and links by rel, and identical
+ * resources, property values and link sections are skipped without being rendered. Embedded resources are matched by
+ * their self links: when the resources of a rel have the same self links in the same order they are compared one by
+ * one, otherwise the rel is replaced as a whole. Merge patches cannot address array items, so an embedded array is
+ * replaced as a whole when any of its items changed.
+ *
+ * A merge patch merges an object into the object it replaces, so every member missing from the new object, at any
+ * depth, is written as null. Merge patches cannot set a value to null, a property changing to null is removed
+ * instead.
+ */
+public class HalDiff {
+
+  private final JsonRepresentationWriter writer;
+
+  public HalDiff() {
+    this(new JsonRepresentationWriter());
+  }
+
+  public HalDiff(JsonRepresentationWriter writer) {
+    this.writer = writer;
+  }
+
+  public void writeJsonPatch(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, Writer output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      writeJsonPatch(from, to, flags, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  public void writeJsonPatch(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags,
+                             OutputStream output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      writeJsonPatch(from, to, flags, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  public void writeMergePatch(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, Writer output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      writeMergePatch(from, to, flags, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  public void writeMergePatch(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags,
+                              OutputStream output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      writeMergePatch(from, to, flags, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  private void writeJsonPatch(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, JsonGenerator g)
+      throws IOException {
+    g.writeStartArray();
+    diffResource(from, to, flags, false, new JsonPatch(g));
+    g.writeEndArray();
+  }
+
+  private void writeMergePatch(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags,
+                               JsonGenerator g)
+      throws IOException {
+    g.writeStartObject();
+    diffResource(from, to, flags, false, new MergePatch(g));
+    g.writeEndObject();
+  }
+
+  private void diffResource(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, boolean embedded,
+                            Patch patch)
+      throws IOException {
+    if (from == to) {
+      return;
+    }
+    diffLinks(from, to, flags, embedded, patch);
+    diffProperties(from, to, flags, patch);
+    diffEmbedded(from, to, flags, patch);
+  }
+
+  private void diffLinks(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, boolean embedded,
+                         Patch patch)
+      throws IOException {
+    if (from.getLinks() == to.getLinks() && from.getNamespaces() == to.getNamespaces()) {
+      return;
+    }
+    JsonNode fromLinks = renderLinks(from, flags, embedded, patch.g);
+    JsonNode toLinks = renderLinks(to, flags, embedded, patch.g);
+    if (fromLinks == null || toLinks == null) {
+      if (toLinks != null) {
+        patch.set(LINKS, false, g -> g.writeTree(toLinks));
+      } else if (fromLinks != null) {
+        patch.remove(LINKS);
+      }
+      return;
+    }
+
+    patch.enter(LINKS);
+    for (String rel : union(fromLinks.fieldNames(), toLinks.fieldNames())) {
+      JsonNode fromRel = fromLinks.get(rel);
+      JsonNode toRel = toLinks.get(rel);
+      if (toRel == null) {
+        patch.remove(rel);
+      } else if (fromRel == null) {
+        patch.set(rel, false, g -> g.writeTree(toRel));
+      } else if (!toRel.equals(fromRel)) {
+        patch.replace(rel, g -> g.writeTree(fromRel), g -> g.writeTree(toRel));
+      }
+    }
+    patch.exit();
+  }
+
+  private JsonNode renderLinks(ReadableRepresentation representation, Set<URI> flags, boolean embedded,
+                               JsonGenerator g)
+      throws IOException {
+    TokenBuffer buffer = new TokenBuffer(g.getCodec(), false);
+    buffer.writeStartObject();
+    writer.renderLinks(flags, buffer, representation, embedded, List.empty());
+    buffer.writeEndObject();
+    return buffer.asParser().<JsonNode>readValueAsTree().get(LINKS);
+  }
+
+  private void diffProperties(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, Patch patch)
+      throws IOException {
+    if (from.getProperties() == to.getProperties()) {
+      return;
+    }
+    boolean stripNulls = flags.contains(RepresentationFactory.STRIP_NULLS);
+    Map<String, Option<Object>> fromProperties = properties(from, stripNulls);
+    Map<String, Option<Object>> toProperties = properties(to, stripNulls);
+
+    for (String name : union(fromProperties.keySet().iterator(), toProperties.keySet().iterator())) {
+      Option<Object> fromValue = fromProperties.get(name);
+      Option<Object> toValue = toProperties.get(name);
+      if (toValue == null) {
+        patch.remove(name);
+      } else if (fromValue == null || !Objects.equals(fromValue.orElse(null), toValue.orElse(null))) {
+        Object value = toValue.orElse(null);
+        if (value == null && patch instanceof MergePatch) {
+          patch.remove(name);
+        } else if (fromValue == null) {
+          patch.set(name, false, g -> JsonRepresentationWriter.writePropertyValue(g, value));
+        } else {
+          patch.replace(name, g -> JsonRepresentationWriter.writePropertyValue(g, fromValue.orElse(null)),
+                        g -> JsonRepresentationWriter.writePropertyValue(g, value));
+        }
+      }
+    }
+  }
+
+  private static Map<String, Option<Object>> properties(ReadableRepresentation representation, boolean stripNulls) {
+    Map<String, Option<Object>> properties = new LinkedHashMap<>();
+    for (Tuple2<String, Option<Object>> property : representation.getProperties()) {
+      if (property._2.isDefined() || !stripNulls) {
+        properties.put(property._1, property._2);
+      }
+    }
+    return properties;
+  }
+
+  private void diffEmbedded(ReadableRepresentation from, ReadableRepresentation to, Set<URI> flags, Patch patch)
+      throws IOException {
+    if (from.getResources() == to.getResources()) {
+      return;
+    }
+    Map<String, JsonRepresentationWriter.EmbeddedRel> fromRels = embeddedRels(from, flags);
+    Map<String, JsonRepresentationWriter.EmbeddedRel> toRels = embeddedRels(to, flags);
+    if (fromRels.isEmpty() || toRels.isEmpty()) {
+      if (!toRels.isEmpty()) {
+        patch.set(EMBEDDED, false, g -> {
+          g.writeStartObject();
+          writer.renderEmbedded(flags, g, to, RenderProjection.FULL);
+          g.writeEndObject();
+        });
+      } else if (!fromRels.isEmpty()) {
+        patch.remove(EMBEDDED);
+      }
+      return;
+    }
+
+    patch.enter(EMBEDDED);
+    for (String field : union(fromRels.keySet().iterator(), toRels.keySet().iterator())) {
+      JsonRepresentationWriter.EmbeddedRel fromRel = fromRels.get(field);
+      JsonRepresentationWriter.EmbeddedRel toRel = toRels.get(field);
+      if (toRel == null) {
+        patch.remove(field);
+      } else if (fromRel == null) {
+        patch.set(field, false, g -> writeEmbeddedRel(flags, g, toRel));
+      } else if (!sameSelfLinks(fromRel, toRel)) {
+        patch.replace(field, g -> writeEmbeddedRel(flags, g, fromRel), g -> writeEmbeddedRel(flags, g, toRel));
+      } else if (toRel.coalesce) {
+        patch.enter(field);
+        diffResource(fromRel.resources.head(), toRel.resources.head(), flags, true, patch);
+        patch.exit();
+      } else if (patch instanceof MergePatch) {
+        if (!sameResources(fromRel, toRel, flags, patch.g)) {
+          patch.set(field, true, g -> writeEmbeddedRel(flags, g, toRel));
+        }
+      } else {
+        patch.enter(field);
+        Iterator<? extends ReadableRepresentation> fromResources = fromRel.resources.iterator();
+        int index = 0;
+        for (ReadableRepresentation toResource : toRel.resources) {
+          patch.enter(String.valueOf(index++));
+          diffResource(fromResources.next(), toResource, flags, true, patch);
+          patch.exit();
+        }
+        patch.exit();
+      }
+    }
+    patch.exit();
+  }
+
+  private Map<String, JsonRepresentationWriter.EmbeddedRel> embeddedRels(ReadableRepresentation representation,
+                                                                         Set<URI> flags) {
+    Map<String, JsonRepresentationWriter.EmbeddedRel> embeddedRels = new LinkedHashMap<>();
+    for (JsonRepresentationWriter.EmbeddedRel embeddedRel
+        : writer.embeddedRels(flags, representation, RenderProjection.FULL)) {
+      embeddedRels.put(embeddedRel.field, embeddedRel);
+    }
+    return embeddedRels;
+  }
+
+  private static boolean sameSelfLinks(JsonRepresentationWriter.EmbeddedRel fromRel,
+                                       JsonRepresentationWriter.EmbeddedRel toRel) {
+    if (fromRel.coalesce != toRel.coalesce || fromRel.resources.length() != toRel.resources.length()) {
+      return false;
+    }
+    Iterator<? extends ReadableRepresentation> fromResources = fromRel.resources.iterator();
+    for (ReadableRepresentation toResource : toRel.resources) {
+      Option<String> fromSelf = fromResources.next().getResourceLink().map(Link::getHref);
+      if (!fromSelf.equals(toResource.getResourceLink().map(Link::getHref))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean sameResources(JsonRepresentationWriter.EmbeddedRel fromRel,
+                                JsonRepresentationWriter.EmbeddedRel toRel, Set<URI> flags, JsonGenerator g)
+      throws IOException {
+    Iterator<? extends ReadableRepresentation> fromResources = fromRel.resources.iterator();
+    for (ReadableRepresentation toResource : toRel.resources) {
+      ReadableRepresentation fromResource = fromResources.next();
+      if (fromResource != toResource
+          && !renderResource(flags, g, fromRel.rel, fromResource).equals(renderResource(flags, g, toRel.rel, toResource))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private JsonNode renderResource(Set<URI> flags, JsonGenerator g, String rel, ReadableRepresentation representation)
+      throws IOException {
+    TokenBuffer buffer = new TokenBuffer(g.getCodec(), false);
+    buffer.writeStartObject();
+    writer.renderEmbeddedJson(flags, buffer, rel, representation, RenderProjection.FULL);
+    buffer.writeEndObject();
+    return buffer.asParser().readValueAsTree();
+  }
+
+  private void writeEmbeddedRel(Set<URI> flags, JsonGenerator g, JsonRepresentationWriter.EmbeddedRel embeddedRel)
+      throws IOException {
+    if (!embeddedRel.coalesce) {
+      g.writeStartArray();
+    }
+    for (ReadableRepresentation resource : embeddedRel.resources) {
+      g.writeStartObject();
+      writer.renderEmbeddedJson(flags, g, embeddedRel.rel, resource, embeddedRel.projection);
+      g.writeEndObject();
+    }
+    if (!embeddedRel.coalesce) {
+      g.writeEndArray();
+    }
+  }
+
+  private static Iterable<String> union(Iterator<String> first, Iterator<String> second) {
+    java.util.Set<String> names = new LinkedHashSet<>();
+    first.forEachRemaining(names::add);
+    second.forEachRemaining(names::add);
+    return names;
+  }
+
+  @FunctionalInterface
+  private interface Value {
+    void write(JsonGenerator g)
+        throws IOException;
+  }
+
+  /**
+   * Receives the changes of the walk, relative to the object or array most recently entered.
+   */
+  private abstract static class Patch {
+    final JsonGenerator g;
+
+    Patch(JsonGenerator g) {
+      this.g = g;
+    }
+
+    abstract void enter(String name)
+        throws IOException;
+
+    abstract void exit()
+        throws IOException;
+
+    abstract void remove(String name)
+        throws IOException;
+
+    abstract void set(String name, boolean exists, Value value)
+        throws IOException;
+
+    /**
+     * Replace an existing value, given both the value being replaced and its replacement.
+     */
+    abstract void replace(String name, Value from, Value to)
+        throws IOException;
+  }
+
+  private static final class JsonPatch
+      extends Patch {
+
+    private final Deque<String> path = new ArrayDeque<>();
+
+    JsonPatch(JsonGenerator g) {
+      super(g);
+    }
+
+    @Override
+    void enter(String name) {
+      path.addLast(name);
+    }
+
+    @Override
+    void exit() {
+      path.removeLast();
+    }
+
+    @Override
+    void remove(String name)
+        throws IOException {
+      g.writeStartObject();
+      g.writeStringField("op", "remove");
+      g.writeStringField("path", pointer(name));
+      g.writeEndObject();
+    }
+
+    @Override
+    void set(String name, boolean exists, Value value)
+        throws IOException {
+      g.writeStartObject();
+      g.writeStringField("op", exists ? "replace" : "add");
+      g.writeStringField("path", pointer(name));
+      g.writeFieldName("value");
+      value.write(g);
+      g.writeEndObject();
+    }
+
+    @Override
+    void replace(String name, Value from, Value to)
+        throws IOException {
+      set(name, true, to);
+    }
+
+    private String pointer(String name) {
+      StringBuilder pointer = new StringBuilder();
+      for (String segment : path) {
+        appendSegment(pointer, segment);
+      }
+      appendSegment(pointer, name);
+      return pointer.toString();
+    }
+
+    private static void appendSegment(StringBuilder pointer, String segment) {
+      pointer.append('/').append(segment.replace("~", "~0").replace("/", "~1"));
+    }
+  }
+
+  /**
+   * Objects are only opened once they receive their first change, so unchanged subtrees leave nothing behind.
+   */
+  private static final class MergePatch
+      extends Patch {
+
+    private final Deque<String> pending = new ArrayDeque<>();
+    private final Deque<Boolean> opened = new ArrayDeque<>();
+
+    MergePatch(JsonGenerator g) {
+      super(g);
+    }
+
+    @Override
+    void enter(String name) {
+      pending.addLast(name);
+      opened.addLast(false);
+    }
+
+    @Override
+    void exit()
+        throws IOException {
+      pending.removeLast();
+      if (opened.removeLast()) {
+        g.writeEndObject();
+      }
+    }
+
+    @Override
+    void remove(String name)
+        throws IOException {
+      open();
+      g.writeNullField(name);
+    }
+
+    @Override
+    void set(String name, boolean exists, Value value)
+        throws IOException {
+      open();
+      g.writeFieldName(name);
+      value.write(g);
+    }
+
+    @Override
+    void replace(String name, Value from, Value to)
+        throws IOException {
+      JsonNode fromNode = tree(from);
+      JsonNode toNode = tree(to);
+      open();
+      g.writeFieldName(name);
+      writeMerge(fromNode, toNode);
+    }
+
+    private JsonNode tree(Value value)
+        throws IOException {
+      TokenBuffer buffer = new TokenBuffer(g.getCodec(), false);
+      value.write(buffer);
+      return buffer.asParser().readValueAsTree();
+    }
+
+    /**
+     * Write the object merging into the one it replaces, with its changed members and null for its removed ones.
+     */
+    private void writeMerge(JsonNode from, JsonNode to)
+        throws IOException {
+      if (!from.isObject() || !to.isObject()) {
+        g.writeTree(to);
+        return;
+      }
+      g.writeStartObject();
+      for (Iterator<Map.Entry<String, JsonNode>> fields = to.fields(); fields.hasNext(); ) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        JsonNode fromField = from.get(field.getKey());
+        if (!field.getValue().equals(fromField)) {
+          g.writeFieldName(field.getKey());
+          if (fromField == null) {
+            g.writeTree(field.getValue());
+          } else {
+            writeMerge(fromField, field.getValue());
+          }
+        }
+      }
+      for (Iterator<String> names = from.fieldNames(); names.hasNext(); ) {
+        String name = names.next();
+        if (!to.has(name)) {
+          g.writeNullField(name);
+        }
+      }
+      g.writeEndObject();
+    }
+
+    private void open()
+        throws IOException {
+      Iterator<String> names = pending.iterator();
+      java.util.List<Boolean> states = new java.util.ArrayList<>(opened);
+      opened.clear();
+      for (Boolean state : states) {
+        String name = names.next();
+        if (!state) {
+          g.writeObjectFieldStart(name);
+        }
+        opened.addLast(true);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,200 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.base.Throwables;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import javaslang.Tuple2;
+import javaslang.collection.Set;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * JDK Flight Recorder events for reading and writing HAL+JSON.
+ *
+ * Events are defined at runtime through {@code jdk.jfr.EventFactory}, so this module still runs on JVMs without
+ * Flight Recorder, where every event is a no-op. Reads and writes are enabled by default and only recorded when
+ * they take longer than 1 ms, the embedded resource and property decoding sub-events are disabled by default and
+ * have to be switched on in the recording settings. Counts and depth are only computed for events being committed.
+ */
+final class HalFlightRecorder {
+
+  private static final String PREFIX = "com.theoryinpractise.halbuilder.json.";
+
+  private static final String[] FIELDS = {"size", "links", "properties", "embedded", "depth", "flags", "name"};
+  private static final Class<?>[] FIELD_TYPES = {long.class, int.class, int.class, int.class, int.class, String.class,
+                                                 String.class};
+  private static final String[] FIELD_LABELS = {"Document Size", "Links", "Properties", "Embedded Resources", "Depth",
+                                                "Flags", "Name"};
+
+  static final HalFlightRecorder READ = new HalFlightRecorder("Read", "HAL Read", true, "1 ms");
+  static final HalFlightRecorder WRITE = new HalFlightRecorder("Write", "HAL Write", true, "1 ms");
+  static final HalFlightRecorder EMBEDDED = new HalFlightRecorder("Embedded", "HAL Embedded Resource Render", false,
+                                                                  "0 ms");
+  static final HalFlightRecorder PROPERTY = new HalFlightRecorder("Property", "HAL Property Decode", false, "0 ms");
+
+  private static final MethodHandle BEGIN;
+  private static final MethodHandle END;
+  private static final MethodHandle SHOULD_COMMIT;
+  private static final MethodHandle COMMIT;
+  private static final MethodHandle SET;
+
+  static {
+    MethodHandle begin = null;
+    MethodHandle end = null;
+    MethodHandle shouldCommit = null;
+    MethodHandle commit = null;
+    MethodHandle set = null;
+    try {
+      Class<?> event = Class.forName("jdk.jfr.Event");
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      MethodType action = MethodType.methodType(void.class, Object.class);
+      begin = lookup.findVirtual(event, "begin", MethodType.methodType(void.class)).asType(action);
+      end = lookup.findVirtual(event, "end", MethodType.methodType(void.class)).asType(action);
+      commit = lookup.findVirtual(event, "commit", MethodType.methodType(void.class)).asType(action);
+      shouldCommit = lookup.findVirtual(event, "shouldCommit", MethodType.methodType(boolean.class))
+                           .asType(MethodType.methodType(boolean.class, Object.class));
+      set = lookup.findVirtual(event, "set", MethodType.methodType(void.class, int.class, Object.class))
+                  .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // No Flight Recorder on this JVM
+    }
+    BEGIN = begin;
+    END = end;
+    SHOULD_COMMIT = shouldCommit;
+    COMMIT = commit;
+    SET = set;
+  }
+
+  private final MethodHandle newEvent;
+  private final MethodHandle isEnabled;
+
+  private HalFlightRecorder(String name, String label, boolean enabled, String threshold) {
+    MethodHandle newEventHandle = null;
+    MethodHandle isEnabledHandle = null;
+    try {
+      Object factory = createFactory(name, label, enabled, threshold);
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Object eventType = factory.getClass().getMethod("getEventType").invoke(factory);
+      newEventHandle = lookup.findVirtual(Class.forName("jdk.jfr.EventFactory"), "newEvent",
+                                          MethodType.methodType(Class.forName("jdk.jfr.Event")))
+                             .bindTo(factory)
+                             .asType(MethodType.methodType(Object.class));
+      isEnabledHandle = lookup.findVirtual(Class.forName("jdk.jfr.EventType"), "isEnabled",
+                                           MethodType.methodType(boolean.class))
+                              .bindTo(eventType);
+    } catch (Exception | LinkageError e) {
+      // No Flight Recorder on this JVM
+    }
+    this.newEvent = newEventHandle;
+    this.isEnabled = isEnabledHandle;
+  }
+
+  private static Object createFactory(String name, String label, boolean enabled, String threshold)
+      throws Exception {
+    List<Object> annotations = Arrays.asList(
+        annotation("jdk.jfr.Name", PREFIX + name),
+        annotation("jdk.jfr.Label", label),
+        annotation("jdk.jfr.Category", new String[]{"HAL", "JSON"}),
+        annotation("jdk.jfr.Enabled", enabled),
+        annotation("jdk.jfr.Threshold", threshold),
+        annotation("jdk.jfr.StackTrace", false));
+
+    Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+    Constructor<?> field = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+    List<Object> fields = new ArrayList<>();
+    for (int i = 0; i < FIELDS.length; i++) {
+      fields.add(field.newInstance(FIELD_TYPES[i], FIELDS[i],
+                                   Collections.singletonList(annotation("jdk.jfr.Label", FIELD_LABELS[i]))));
+    }
+
+    return Class.forName("jdk.jfr.EventFactory")
+                .getMethod("create", List.class, List.class)
+                .invoke(null, annotations, fields);
+  }
+
+  private static Object annotation(String type, Object value)
+      throws Exception {
+    return Class.forName("jdk.jfr.AnnotationElement")
+                .getConstructor(Class.class, Object.class)
+                .newInstance(Class.forName(type), value);
+  }
+
+  boolean isEnabled() {
+    try {
+      return isEnabled != null && (boolean) isEnabled.invokeExact();
+    } catch (Throwable t) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  /**
+   * Start timing an event, returning null when the event is not enabled.
+   */
+  Object begin() {
+    if (!isEnabled()) {
+      return null;
+    }
+    try {
+      Object event = (Object) newEvent.invokeExact();
+      BEGIN.invokeExact(event);
+      return event;
+    } catch (Throwable t) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  /**
+   * Commit an event started by {@link #begin()}, describing the shape of the representation if it is recorded.
+   */
+  void commit(Object event, long size, ReadableRepresentation representation, Set<URI> flags, String name) {
+    if (event == null) {
+      return;
+    }
+    try {
+      END.invokeExact(event);
+      if ((boolean) SHOULD_COMMIT.invokeExact(event)) {
+        SET.invokeExact(event, 0, (Object) size);
+        if (representation != null) {
+          SET.invokeExact(event, 1, (Object) representation.getLinks().length());
+          SET.invokeExact(event, 2, (Object) representation.getProperties().length());
+          SET.invokeExact(event, 3, (Object) representation.getResources().length());
+          SET.invokeExact(event, 4, (Object) depth(representation));
+        }
+        if (flags != null) {
+          SET.invokeExact(event, 5, (Object) flagNames(flags));
+        }
+        SET.invokeExact(event, 6, (Object) name);
+        COMMIT.invokeExact(event);
+      }
+    } catch (Throwable t) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  private static int depth(ReadableRepresentation representation) {
+    int depth = 0;
+    for (Tuple2<String, ReadableRepresentation> resource : representation.getResources()) {
+      depth = Math.max(depth, depth(resource._2));
+    }
+    return depth + 1;
+  }
+
+  private static String flagNames(Set<URI> flags) {
+    StringBuilder names = new StringBuilder();
+    for (URI flag : flags) {
+      if (names.length() > 0) {
+        names.append(',');
+      }
+      names.append(flag);
+    }
+    return names.toString();
+  }
+
+}
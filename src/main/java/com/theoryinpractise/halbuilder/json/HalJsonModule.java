@@ -0,0 +1,34 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+import javaslang.collection.HashSet;
+import javaslang.collection.Set;
+
+import java.net.URI;
+
+/**
+ * Jackson module for writing and reading HAL+JSON through an existing ObjectMapper.
+ *
+ * Representations are rendered straight into the generator of the owning mapper, so frameworks that already
+ * manage an ObjectMapper (JAX-RS providers, Spring message converters) no longer need to render to an
+ * intermediate String first.
+ */
+public class HalJsonModule
+    extends SimpleModule {
+
+  public HalJsonModule(AbstractRepresentationFactory representationFactory) {
+    this(representationFactory, HashSet.empty());
+  }
+
+  public HalJsonModule(AbstractRepresentationFactory representationFactory, Set<URI> flags) {
+    super("HalJsonModule");
+    addSerializer(ReadableRepresentation.class, new ReadableRepresentationSerializer(flags));
+
+    PersistentRepresentationDeserializer deserializer = new PersistentRepresentationDeserializer(representationFactory);
+    addDeserializer(PersistentRepresentation.class, deserializer);
+    addDeserializer(ReadableRepresentation.class, deserializer);
+  }
+}
@@ -0,0 +1,182 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.function.Function;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.CURIES;
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.HREF;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+
+/**
+ * Rewrites HAL+JSON documents token by token, without reading them into representations.
+ *
+ * Rules apply to every resource in the document, including embedded ones. Rel and property rules return the new
+ * name, or null to drop the rel or property altogether. Rewriters are immutable and thread safe, every {@code with}
+ * method returns a modified copy.
+ */
+public final class HalRewriter {
+
+  private static final JsonFactory JSON_FACTORY = JsonRepresentationReader.MAPPER.getFactory();
+
+  private final Function<String, String> hrefs;
+  private final Function<String, String> rels;
+  private final Function<String, String> properties;
+
+  public HalRewriter() {
+    this(Function.identity(), Function.identity(), Function.identity());
+  }
+
+  private HalRewriter(Function<String, String> hrefs, Function<String, String> rels,
+                      Function<String, String> properties) {
+    this.hrefs = hrefs;
+    this.rels = rels;
+    this.properties = properties;
+  }
+
+  /**
+   * Rewrite the href of every link, including CURIE templates. Links keep their href when the rule returns null.
+   */
+  public HalRewriter withHrefs(Function<String, String> rule) {
+    return new HalRewriter(rule, rels, properties);
+  }
+
+  /**
+   * Rename or drop link and embedded rels.
+   */
+  public HalRewriter withRels(Function<String, String> rule) {
+    return new HalRewriter(hrefs, rule, properties);
+  }
+
+  /**
+   * Rename or drop properties, nested values inside a property are copied unchanged.
+   */
+  public HalRewriter withProperties(Function<String, String> rule) {
+    return new HalRewriter(hrefs, rels, rule);
+  }
+
+  public void rewrite(Reader reader, Writer writer) {
+    try (JsonParser p = JSON_FACTORY.createParser(reader);
+         JsonGenerator g = JSON_FACTORY.createGenerator(writer)) {
+      rewrite(p, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  public void rewrite(InputStream inputStream, OutputStream outputStream) {
+    try (JsonParser p = JSON_FACTORY.createParser(inputStream);
+         JsonGenerator g = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8)) {
+      rewrite(p, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Copy the next resource from the parser to the generator, applying the rules on the way.
+   */
+  public void rewrite(JsonParser p, JsonGenerator g)
+      throws IOException {
+    if (p.nextToken() != JsonToken.START_OBJECT) {
+      throw new RepresentationException("Expected a JSON object at " + p.getCurrentLocation());
+    }
+    rewriteResource(p, g);
+  }
+
+  private void rewriteResource(JsonParser p, JsonGenerator g)
+      throws IOException {
+    g.writeStartObject();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      JsonToken token = p.nextToken();
+      if (LINKS.equals(name) && token == JsonToken.START_OBJECT) {
+        g.writeFieldName(name);
+        rewriteRels(p, g, false);
+      } else if (EMBEDDED.equals(name) && token == JsonToken.START_OBJECT) {
+        g.writeFieldName(name);
+        rewriteRels(p, g, true);
+      } else {
+        String property = properties.apply(name);
+        if (property == null) {
+          p.skipChildren();
+        } else {
+          g.writeFieldName(property);
+          g.copyCurrentStructure(p);
+        }
+      }
+    }
+    g.writeEndObject();
+  }
+
+  private void rewriteRels(JsonParser p, JsonGenerator g, boolean embedded)
+      throws IOException {
+    g.writeStartObject();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      String rel = !embedded && CURIES.equals(name) ? name : rels.apply(name);
+      JsonToken token = p.nextToken();
+      if (rel == null) {
+        p.skipChildren();
+        continue;
+      }
+
+      g.writeFieldName(rel);
+      if (token == JsonToken.START_ARRAY) {
+        g.writeStartArray();
+        for (JsonToken item = p.nextToken(); item != JsonToken.END_ARRAY; item = p.nextToken()) {
+          if (item != JsonToken.START_OBJECT) {
+            throw new RepresentationException("Expected " + (embedded ? "a resource" : "a link") + " object in '"
+                                              + name + "' but found " + item + " at " + p.getCurrentLocation());
+          }
+          rewriteItem(p, g, embedded);
+        }
+        g.writeEndArray();
+      } else if (token == JsonToken.START_OBJECT) {
+        rewriteItem(p, g, embedded);
+      } else {
+        g.copyCurrentStructure(p);
+      }
+    }
+    g.writeEndObject();
+  }
+
+  private void rewriteItem(JsonParser p, JsonGenerator g, boolean embedded)
+      throws IOException {
+    if (embedded) {
+      rewriteResource(p, g);
+    } else {
+      rewriteLink(p, g);
+    }
+  }
+
+  private void rewriteLink(JsonParser p, JsonGenerator g)
+      throws IOException {
+    g.writeStartObject();
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      JsonToken token = p.nextToken();
+      if (HREF.equals(name) && token == JsonToken.VALUE_STRING) {
+        String href = p.getText();
+        String rewritten = hrefs.apply(href);
+        g.writeStringField(HREF, rewritten != null ? rewritten : href);
+      } else {
+        g.writeFieldName(name);
+        g.copyCurrentStructure(p);
+      }
+    }
+    g.writeEndObject();
+  }
+
+}
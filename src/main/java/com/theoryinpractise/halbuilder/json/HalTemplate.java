@@ -0,0 +1,242 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import com.theoryinpractise.halbuilder.api.Rels;
+import javaslang.Tuple2;
+import javaslang.collection.Set;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A representation rendered once into pre-encoded UTF-8 segments, with named slots filled in on every render.
+ *
+ * The prototype is built like any other representation, using {@link #value(String)} for property values and
+ * {@link #text(String)} for parts of hrefs and other link attributes that change per render. Rendering copies the
+ * cached segments and writes the slot values in between: values through the same codec the writer uses, text as an
+ * escaped string. The output is identical to rendering a representation holding the slot values, except that null
+ * values are written even with {@link RepresentationFactory#STRIP_NULLS}.
+ *
+ * The layout is fixed when compiling, so nothing which orders or flags output by content can depend on a slot.
+ * Compiling rejects slotted links sharing a rel with other links under {@link JsonRepresentationWriter#CANONICAL},
+ * which sorts them by their attributes, and more than one resource embedded under a sorted rel. Whether a link is
+ * templated is decided by its prototype href, so text slots must not carry URI templates.
+ *
+ * Pretty printed output indents values by their depth, so templates cannot be compiled with
+ * {@link RepresentationFactory#PRETTY_PRINT}. Templates are immutable and thread safe.
+ */
+public final class HalTemplate {
+
+  /**
+   * Slots are marked with private use characters, which Jackson writes unescaped unless it escapes all non-ASCII
+   * characters.
+   */
+  private static final char VALUE_START = '\ue000';
+  private static final char VALUE_END = '\ue001';
+  private static final char TEXT_START = '\ue002';
+  private static final char TEXT_END = '\ue003';
+
+  private final JsonRepresentationWriter writer;
+  private final Set<URI> flags;
+  private final List<SerializableString> segments;
+  private final List<Slot> slots;
+
+  private HalTemplate(JsonRepresentationWriter writer, Set<URI> flags, List<SerializableString> segments,
+                      List<Slot> slots) {
+    this.writer = writer;
+    this.flags = flags;
+    this.segments = segments;
+    this.slots = slots;
+  }
+
+  /**
+   * A property value filled in from the named slot.
+   */
+  public static Object value(String name) {
+    return new Slot(name, true);
+  }
+
+  /**
+   * Text filled in from the named slot, which can be concatenated into hrefs and other link attributes.
+   */
+  public static String text(String name) {
+    return TEXT_START + name + TEXT_END;
+  }
+
+  public static HalTemplate compile(ReadableRepresentation prototype, Set<URI> flags) {
+    return compile(prototype, flags, new JsonRepresentationWriter());
+  }
+
+  public static HalTemplate compile(ReadableRepresentation prototype, Set<URI> flags, JsonRepresentationWriter writer) {
+    if (flags.contains(RepresentationFactory.PRETTY_PRINT)) {
+      throw new IllegalArgumentException("Templates cannot be pretty printed");
+    }
+
+    checkLayout(prototype, flags);
+
+    String rendered = unescapeMarkers(writer.writeToString(prototype, flags));
+    List<SerializableString> segments = new ArrayList<>();
+    List<Slot> slots = new ArrayList<>();
+
+    int start = 0;
+    int index = 0;
+    while (index < rendered.length()) {
+      char c = rendered.charAt(index);
+      if (c != VALUE_START && c != TEXT_START) {
+        index++;
+        continue;
+      }
+      boolean value = c == VALUE_START;
+      int end = rendered.indexOf(value ? VALUE_END : TEXT_END, index);
+      if (end < 0) {
+        throw new IllegalArgumentException("Unterminated slot in " + rendered);
+      }
+      // Value slots replace the whole quoted string they were rendered as
+      segments.add(segment(rendered.substring(start, value ? index - 1 : index)));
+      slots.add(new Slot(rendered.substring(index + 1, end), value));
+      start = value ? end + 2 : end + 1;
+      index = start;
+    }
+    segments.add(segment(rendered.substring(start)));
+
+    return new HalTemplate(writer, flags, segments, slots);
+  }
+
+  private static String unescapeMarkers(String rendered) {
+    for (char marker : new char[] {VALUE_START, VALUE_END, TEXT_START, TEXT_END}) {
+      rendered = rendered.replace(String.format("\\u%04X", (int) marker), String.valueOf(marker));
+    }
+    return rendered;
+  }
+
+  private static void checkLayout(ReadableRepresentation representation, Set<URI> flags) {
+    if (flags.contains(JsonRepresentationWriter.CANONICAL)) {
+      for (Tuple2<String, ? extends javaslang.collection.List<Link>> links
+          : representation.getLinks().groupBy(Link::getRel)) {
+        if (links._2.length() > 1 && links._2.exists(HalTemplate::hasTextSlot)) {
+          throw new IllegalArgumentException("Canonical templates cannot slot links of rel " + links._1
+                                             + ", as they are sorted by their attributes");
+        }
+      }
+    }
+    for (Tuple2<String, ? extends javaslang.collection.List<? extends ReadableRepresentation>> resources
+        : representation.getResourceMap()) {
+      if (resources._2.length() > 1
+          && Rels.getComparator(representation.getRels().get(resources._1).get()).isDefined()) {
+        throw new IllegalArgumentException("Templates cannot embed sorted rel " + resources._1
+                                           + ", as it is sorted by its values");
+      }
+      resources._2.forEach(resource -> checkLayout(resource, flags));
+    }
+  }
+
+  private static boolean hasTextSlot(Link link) {
+    for (String attribute : new String[] {link.getHref(), link.getName(), link.getTitle(), link.getHreflang(),
+                                          link.getProfile()}) {
+      if (attribute != null && attribute.indexOf(TEXT_START) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static SerializableString segment(String text) {
+    return new RawJson.Utf8String(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public void render(Map<String, ?> values, OutputStream outputStream) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, outputStream)) {
+      render(values, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  public void render(Map<String, ?> values, Writer output) {
+    try (JsonGenerator g = writer.getJsonGenerator(flags, output)) {
+      render(values, g);
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  public byte[] renderToBytes(Map<String, ?> values) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    render(values, output);
+    return output.toByteArray();
+  }
+
+  public String renderToString(Map<String, ?> values) {
+    StringWriter output = new StringWriter();
+    render(values, output);
+    return output.toString();
+  }
+
+  private void render(Map<String, ?> values, JsonGenerator g)
+      throws IOException {
+    // Slot values are written as consecutive root values, which must not be separated
+    g.setRootValueSeparator(null);
+    JsonEscaper escaper = null;
+    for (int i = 0; i < slots.size(); i++) {
+      g.writeRaw(segments.get(i));
+      Slot slot = slots.get(i);
+      if (!values.containsKey(slot.name)) {
+        throw new RepresentationException("No value for slot " + slot.name);
+      }
+      Object value = values.get(slot.name);
+      if (slot.value) {
+        JsonRepresentationWriter.writePropertyValue(g, value);
+      } else {
+        if (escaper == null) {
+          escaper = new JsonEscaper(g);
+        }
+        escaper.writeEscaped(String.valueOf(value));
+      }
+    }
+    g.writeRaw(segments.get(slots.size()));
+  }
+
+  /**
+   * Rendered as the slot markers while compiling.
+   */
+  private static final class Slot
+      implements JsonSerializable {
+
+    final String name;
+    final boolean value;
+
+    Slot(String name, boolean value) {
+      this.name = name;
+      this.value = value;
+    }
+
+    @Override
+    public void serialize(JsonGenerator g, SerializerProvider serializers)
+        throws IOException {
+      g.writeString(VALUE_START + name + VALUE_END);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator g, SerializerProvider serializers, TypeSerializer typeSer)
+        throws IOException {
+      serialize(g, serializers);
+    }
+  }
+
+}
@@ -0,0 +1,291 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.CURIES;
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.HREF;
+import static com.theoryinpractise.halbuilder.impl.api.Support.HREFLANG;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+import static com.theoryinpractise.halbuilder.impl.api.Support.NAME;
+import static com.theoryinpractise.halbuilder.impl.api.Support.PROFILE;
+import static com.theoryinpractise.halbuilder.impl.api.Support.TEMPLATED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.TITLE;
+
+/**
+ * Checks the HAL structure of a HAL+JSON document while streaming its tokens, without reading it into a
+ * representation.
+ *
+ * Every resource, including embedded ones, must be an object, with {@code _links} and {@code _embedded} objects
+ * whose values are objects or arrays of objects. Links need a string {@code href}, CURIEs a {@code name} as well,
+ * and the optional link attributes must be strings. Property values are skipped without being checked. Memory use
+ * only grows with the nesting depth of the document and the number of violations found. A document that is not
+ * well formed JSON is reported up to its first syntax error.
+ *
+ * Validators hold no state, one instance can be shared across threads.
+ */
+public final class HalValidator {
+
+  private static final JsonFactory JSON_FACTORY = JsonRepresentationReader.MAPPER.getFactory();
+
+  /**
+   * A structural problem, located by the JSON pointer of the offending value and its position in the source.
+   */
+  public static final class Violation {
+    private final String pointer;
+    private final String message;
+    private final int line;
+    private final int column;
+
+    Violation(String pointer, String message, JsonLocation location) {
+      this.pointer = pointer;
+      this.message = message;
+      this.line = location.getLineNr();
+      this.column = location.getColumnNr();
+    }
+
+    public String getPointer() {
+      return pointer;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public int getColumn() {
+      return column;
+    }
+
+    @Override
+    public String toString() {
+      return (pointer.isEmpty() ? "/" : pointer) + " (line " + line + ", column " + column + "): " + message;
+    }
+  }
+
+  public List<Violation> validate(Reader reader) {
+    try (JsonParser p = JSON_FACTORY.createParser(reader)) {
+      return validate(p);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  public List<Violation> validate(InputStream inputStream) {
+    try (JsonParser p = JSON_FACTORY.createParser(inputStream)) {
+      return validate(p);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  public List<Violation> validate(byte[] source, int offset, int length) {
+    try (JsonParser p = JSON_FACTORY.createParser(source, offset, length)) {
+      return validate(p);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  public boolean isValid(Reader reader) {
+    return validate(reader).isEmpty();
+  }
+
+  /**
+   * Validate the next document from the parser, which is left positioned after it.
+   */
+  public List<Violation> validate(JsonParser p)
+      throws IOException {
+    Validation validation = new Validation(p);
+    try {
+      if (p.nextToken() == null) {
+        validation.report("Expected a HAL resource but the document is empty");
+      } else {
+        validation.resource();
+      }
+    } catch (JsonParseException e) {
+      validation.violations.add(new Violation(pointer(p.getParsingContext()), e.getOriginalMessage(), e.getLocation()));
+    }
+    return Collections.unmodifiableList(validation.violations);
+  }
+
+  /**
+   * The pointer of the value being parsed, for syntax errors which can occur before a field is entered.
+   */
+  private static String pointer(JsonStreamContext context) {
+    Deque<String> segments = new ArrayDeque<>();
+    for (JsonStreamContext c = context; c != null && !c.inRoot(); c = c.getParent()) {
+      if (c.inArray()) {
+        segments.addFirst(String.valueOf(Math.max(c.getCurrentIndex(), 0)));
+      } else if (c.getCurrentName() != null) {
+        segments.addFirst(c.getCurrentName());
+      }
+    }
+    return pointer(segments);
+  }
+
+  private static String pointer(Iterable<String> segments) {
+    StringBuilder pointer = new StringBuilder();
+    for (String segment : segments) {
+      pointer.append('/').append(segment.replace("~", "~0").replace("/", "~1"));
+    }
+    return pointer.toString();
+  }
+
+  private static final class Validation {
+    private final JsonParser p;
+    private final Deque<String> path = new ArrayDeque<>();
+    private final List<Violation> violations = new ArrayList<>();
+
+    Validation(JsonParser p) {
+      this.p = p;
+    }
+
+    /**
+     * Validate the resource starting at the current token, leaving the parser on its last token.
+     */
+    void resource()
+        throws IOException {
+      if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+        report("Expected a resource object but found " + describe(p.getCurrentToken()));
+        p.skipChildren();
+        return;
+      }
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        path.addLast(name);
+        if (LINKS.equals(name)) {
+          rels(false);
+        } else if (EMBEDDED.equals(name)) {
+          rels(true);
+        } else {
+          p.skipChildren();
+        }
+        path.removeLast();
+      }
+    }
+
+    private void rels(boolean embedded)
+        throws IOException {
+      if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+        report("Expected an object but found " + describe(p.getCurrentToken()));
+        p.skipChildren();
+        return;
+      }
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String rel = p.getCurrentName();
+        p.nextToken();
+        path.addLast(rel);
+        if (p.getCurrentToken() == JsonToken.START_ARRAY) {
+          int index = 0;
+          while (p.nextToken() != JsonToken.END_ARRAY) {
+            path.addLast(String.valueOf(index++));
+            item(embedded, rel);
+            path.removeLast();
+          }
+        } else {
+          item(embedded, rel);
+        }
+        path.removeLast();
+      }
+    }
+
+    private void item(boolean embedded, String rel)
+        throws IOException {
+      if (embedded) {
+        resource();
+      } else {
+        link(CURIES.equals(rel));
+      }
+    }
+
+    private void link(boolean curie)
+        throws IOException {
+      if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+        report("Expected a link object but found " + describe(p.getCurrentToken()));
+        p.skipChildren();
+        return;
+      }
+      JsonLocation start = p.getTokenLocation();
+      boolean href = false;
+      boolean name = false;
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String attribute = p.getCurrentName();
+        JsonToken token = p.nextToken();
+        path.addLast(attribute);
+        href |= HREF.equals(attribute);
+        if (HREF.equals(attribute) || NAME.equals(attribute) || TITLE.equals(attribute)
+            || HREFLANG.equals(attribute) || PROFILE.equals(attribute)) {
+          if (token == JsonToken.VALUE_STRING) {
+            name |= NAME.equals(attribute);
+          } else {
+            report("Expected link attribute " + attribute + " to be a string but found " + describe(token));
+          }
+        } else if (TEMPLATED.equals(attribute) && token != JsonToken.VALUE_TRUE && token != JsonToken.VALUE_FALSE) {
+          report("Expected link attribute " + attribute + " to be a boolean but found " + describe(token));
+        }
+        p.skipChildren();
+        path.removeLast();
+      }
+      if (!href) {
+        report("Link has no href", start);
+      }
+      if (curie && !name) {
+        report("CURIE has no name", start);
+      }
+    }
+
+    void report(String message) {
+      report(message, p.getTokenLocation());
+    }
+
+    private void report(String message, JsonLocation location) {
+      violations.add(new Violation(pointer(), message, location));
+    }
+
+    private String pointer() {
+      return HalValidator.pointer(path);
+    }
+
+    private static String describe(JsonToken token) {
+      switch (token) {
+        case START_OBJECT:
+          return "an object";
+        case START_ARRAY:
+          return "an array";
+        case VALUE_STRING:
+          return "a string";
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+          return "a number";
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+          return "a boolean";
+        case VALUE_NULL:
+          return "null";
+        default:
+          return token.asString();
+      }
+    }
+  }
+
+}
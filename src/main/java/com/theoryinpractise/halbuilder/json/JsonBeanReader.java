@@ -0,0 +1,494 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import javaslang.collection.LinkedHashMap;
+import javaslang.collection.TreeMap;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.CURIES;
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.HREF;
+import static com.theoryinpractise.halbuilder.impl.api.Support.HREFLANG;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+import static com.theoryinpractise.halbuilder.impl.api.Support.NAME;
+import static com.theoryinpractise.halbuilder.impl.api.Support.PROFILE;
+import static com.theoryinpractise.halbuilder.impl.api.Support.TITLE;
+
+/**
+ * Binds HAL+JSON straight into interfaces or beans, without building an intermediate PersistentRepresentation.
+ *
+ * Target types follow the same conventions as {@code ReadableRepresentation.toClass()}: each accessor of an
+ * interface must be satisfied by a property (or an embedded rel of the same name), a {@code getLinks()} accessor
+ * receives the links of the resource, and a {@code getEmbedded()} accessor receives the embedded resources by rel.
+ * Concrete classes are instantiated through their no-argument constructor and populated through their setters.
+ */
+public class JsonBeanReader {
+
+  private static final String LINKS_PROPERTY = "links";
+  private static final String EMBEDDED_PROPERTY = "embedded";
+
+  private static final ConcurrentMap<Class<?>, BeanBinder> BINDERS = new ConcurrentHashMap<>();
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final JsonRepresentationReader representationReader;
+
+  public JsonBeanReader(AbstractRepresentationFactory representationFactory) {
+    this.representationReader = new JsonRepresentationReader(representationFactory);
+  }
+
+  public <T> T read(Reader reader, Class<T> type) {
+    try (JsonParser parser = MAPPER.getFactory().createParser(reader)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new RepresentationException("Expected a JSON object at " + parser.getCurrentLocation());
+      }
+      return type.cast(bind(parser, type, true));
+    } catch (RepresentationException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  private Object bind(JsonParser parser, Class<?> type, boolean strict)
+      throws IOException {
+    BeanBinder binder = BINDERS.computeIfAbsent(type, BeanBinder::new);
+
+    Object[] values = new Object[binder.slots.size()];
+    boolean[] present = new boolean[binder.slots.size()];
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      if (LINKS.equals(fieldName) && binder.links != null) {
+        expectObject(parser, LINKS);
+        values[binder.links.index] = toCollection(binder.links.rawType, readLinks(parser));
+        present[binder.links.index] = true;
+      } else if (EMBEDDED.equals(fieldName) && parser.getCurrentToken() == JsonToken.START_OBJECT) {
+        readEmbedded(parser, binder, values, present);
+      } else {
+        Slot slot = binder.properties.get(fieldName);
+        if (slot != null) {
+          values[slot.index] = readValue(parser, slot);
+          present[slot.index] = true;
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+
+    return binder.newInstance(values, present, strict);
+  }
+
+  private List<Link> readLinks(JsonParser parser)
+      throws IOException {
+    List<Link> links = new ArrayList<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String rel = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if (CURIES.equals(rel)) {
+        parser.skipChildren();
+      } else if (token == JsonToken.START_ARRAY) {
+        while (nextArrayItem(parser, "link")) {
+          links.add(readLink(parser, rel));
+        }
+      } else if (token == JsonToken.START_OBJECT) {
+        links.add(readLink(parser, rel));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return links;
+  }
+
+  private Link readLink(JsonParser parser, String rel)
+      throws IOException {
+    String href = null;
+    String name = null;
+    String title = null;
+    String hreflang = null;
+    String profile = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      parser.nextToken();
+      if (HREF.equals(fieldName)) {
+        href = parser.getValueAsString();
+      } else if (NAME.equals(fieldName)) {
+        name = parser.getValueAsString();
+      } else if (TITLE.equals(fieldName)) {
+        title = parser.getValueAsString();
+      } else if (HREFLANG.equals(fieldName)) {
+        hreflang = parser.getValueAsString();
+      } else if (PROFILE.equals(fieldName)) {
+        profile = parser.getValueAsString();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (href == null) {
+      throw new RepresentationException("Link '" + rel + "' has no href at " + parser.getCurrentLocation());
+    }
+    return new Link(rel, href, name, title, hreflang, profile);
+  }
+
+  private void readEmbedded(JsonParser parser, BeanBinder binder, Object[] values, boolean[] present)
+      throws IOException {
+    LinkedHashMap<String, Object> embedded = LinkedHashMap.empty();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String rel = parser.getCurrentName();
+      parser.nextToken();
+      Slot slot = binder.slotForRel(rel);
+      if (slot != null) {
+        values[slot.index] = readValue(parser, slot);
+        present[slot.index] = true;
+      } else if (binder.embedded != null) {
+        List<Object> items = new ArrayList<>();
+        if (parser.getCurrentToken() == JsonToken.START_ARRAY) {
+          while (nextArrayItem(parser, "resource")) {
+            items.add(readResource(parser, binder.embedded.elementType));
+          }
+        } else {
+          items.add(readResource(parser, binder.embedded.elementType));
+        }
+        embedded = embedded.put(rel, toCollection(binder.embedded.itemsType, items));
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (binder.embedded != null) {
+      values[binder.embedded.index] = binder.embedded.toMap(embedded);
+      present[binder.embedded.index] = true;
+    }
+  }
+
+  private Object readResource(JsonParser parser, Class<?> elementType)
+      throws IOException {
+    expectObject(parser, "resource");
+    if (elementType == null || ReadableRepresentation.class.isAssignableFrom(elementType)) {
+      return representationReader.readResource(parser.readValueAsTree());
+    } else {
+      return bind(parser, elementType, false);
+    }
+  }
+
+  private Object readValue(JsonParser parser, Slot slot)
+      throws IOException {
+    JsonToken token = parser.getCurrentToken();
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    } else if (slot.elementType != null) {
+      if (token == JsonToken.START_ARRAY) {
+        List<Object> items = new ArrayList<>();
+        while (nextArrayItem(parser, "resource")) {
+          items.add(readResource(parser, slot.elementType));
+        }
+        return toCollection(slot.rawType, items);
+      } else if (slot.collection) {
+        List<Object> items = new ArrayList<>();
+        items.add(readResource(parser, slot.elementType));
+        return toCollection(slot.rawType, items);
+      } else {
+        return readResource(parser, slot.elementType);
+      }
+    } else if (javaslang.collection.Map.class.isAssignableFrom(slot.rawType)) {
+      JsonNode node = parser.readValueAsTree();
+      return fromJavaMap(MAPPER.treeToValue(node, Map.class));
+    } else {
+      return MAPPER.readValue(parser, slot.javaType);
+    }
+  }
+
+  /**
+   * Move to the next item of an array of objects, returning false once the whole array has been read.
+   */
+  private static boolean nextArrayItem(JsonParser parser, String item)
+      throws IOException {
+    if (parser.nextToken() == JsonToken.END_ARRAY) {
+      return false;
+    }
+    expectObject(parser, item);
+    return true;
+  }
+
+  /**
+   * Check the parser is on the start of an object, so a scalar or array is never bound as one.
+   */
+  private static void expectObject(JsonParser parser, String item) {
+    JsonToken token = parser.getCurrentToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new RepresentationException("Expected a " + item + " object but found " + token + " at "
+                                        + parser.getCurrentLocation());
+    }
+  }
+
+  private static Object toCollection(Class<?> collectionType, List<?> items) {
+    if (collectionType != null && collectionType.isAssignableFrom(javaslang.collection.List.class)) {
+      return javaslang.collection.List.ofAll(items);
+    } else {
+      return items;
+    }
+  }
+
+  private static TreeMap<String, Object> fromJavaMap(Map<?, ?> map) {
+    TreeMap<String, Object> returnMap = TreeMap.empty(Comparator.naturalOrder());
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      returnMap = returnMap.put(String.valueOf(entry.getKey()), entry.getValue());
+    }
+    return returnMap;
+  }
+
+  /**
+   * Slots for a single target type, introspected once and shared by all readers.
+   */
+  private static final class BeanBinder {
+
+    private final Class<?> type;
+    private final ImmutableList<Slot> slots;
+    private final ImmutableMap<String, Slot> properties;
+    private final ImmutableMap<Method, Slot> accessors;
+    private final Slot links;
+    private final Slot embedded;
+
+    BeanBinder(Class<?> type) {
+      this.type = type;
+
+      ImmutableList.Builder<Slot> slotsBuilder = ImmutableList.builder();
+      java.util.Map<String, Slot> propertiesBuilder = new java.util.LinkedHashMap<>();
+      ImmutableMap.Builder<Method, Slot> accessorsBuilder = ImmutableMap.builder();
+      Slot linksSlot = null;
+      Slot embeddedSlot = null;
+
+      int index = 0;
+      for (Map.Entry<String, Method> entry : introspect(type).entrySet()) {
+        Method method = entry.getValue();
+        Type valueType = type.isInterface() ? method.getGenericReturnType() : method.getGenericParameterTypes()[0];
+        Slot slot = new Slot(index++, entry.getKey(), method, valueType);
+        slotsBuilder.add(slot);
+        accessorsBuilder.put(method, slot);
+        if (LINKS_PROPERTY.equals(slot.name) && slot.collection) {
+          linksSlot = slot;
+        } else if (EMBEDDED_PROPERTY.equals(slot.name) && slot.map) {
+          embeddedSlot = slot;
+        } else {
+          propertiesBuilder.put(slot.name, slot);
+        }
+      }
+
+      this.slots = slotsBuilder.build();
+      this.properties = ImmutableMap.copyOf(propertiesBuilder);
+      this.accessors = accessorsBuilder.build();
+      this.links = linksSlot;
+      this.embedded = embeddedSlot;
+
+      if (type.isInterface()) {
+        checkAccessors(type, accessors.keySet());
+      }
+    }
+
+    Slot slotForRel(String rel) {
+      Slot slot = properties.get(rel);
+      if (slot == null && rel.indexOf(':') != -1) {
+        slot = properties.get(rel.substring(rel.indexOf(':') + 1));
+      }
+      return slot;
+    }
+
+    Object newInstance(Object[] values, boolean[] present, boolean strict) {
+      if (type.isInterface()) {
+        for (Slot slot : properties.values()) {
+          if (strict && !present[slot.index]) {
+            throw new RepresentationException("Unable to satisfy " + type.getName() + ", missing property '"
+                                              + slot.name + "'");
+          }
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new BoundInvocationHandler(this, values));
+      } else {
+        try {
+          Object bean = type.newInstance();
+          for (Slot slot : slots) {
+            if (present[slot.index]) {
+              slot.accessor.invoke(bean, values[slot.index]);
+            }
+          }
+          return bean;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+          throw new RepresentationException(e.getMessage(), e);
+        }
+      }
+    }
+
+    /**
+     * Proxies can only answer accessors and the Object methods, so any other abstract method can never be bound.
+     */
+    private static void checkAccessors(Class<?> type, java.util.Set<Method> accessors) {
+      for (Method method : type.getMethods()) {
+        if (!Modifier.isStatic(method.getModifiers()) && !accessors.contains(method) && !isObjectMethod(method)) {
+          throw new RepresentationException("Unable to bind " + type.getName() + ", method " + method.getName()
+                                            + " is not a property accessor");
+        }
+      }
+    }
+
+    private static boolean isObjectMethod(Method method) {
+      try {
+        Object.class.getMethod(method.getName(), method.getParameterTypes());
+        return true;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+
+    private static java.util.Map<String, Method> introspect(Class<?> type) {
+      java.util.Map<String, Method> methods = new java.util.TreeMap<>();
+      if (type.isInterface()) {
+        for (Method method : type.getMethods()) {
+          if (method.getParameterCount() == 0
+              && method.getReturnType() != Void.TYPE
+              && Modifier.isAbstract(method.getModifiers())) {
+            methods.put(JsonBeanWriter.propertyName(method.getName()), method);
+          }
+        }
+      } else {
+        try {
+          for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+            if (descriptor.getWriteMethod() != null) {
+              methods.put(descriptor.getName(), descriptor.getWriteMethod());
+            }
+          }
+        } catch (IntrospectionException e) {
+          throw new RepresentationException(e.getMessage(), e);
+        }
+      }
+      return methods;
+    }
+  }
+
+  /**
+   * A single bindable accessor (for interfaces) or setter (for beans) of a target type.
+   */
+  private static final class Slot {
+
+    private final int index;
+    private final String name;
+    private final Method accessor;
+    private final Class<?> rawType;
+    private final JavaType javaType;
+    private final boolean collection;
+    private final boolean map;
+    private final Class<?> itemsType;
+    private final Class<?> elementType;
+
+    Slot(int index, String name, Method accessor, Type valueType) {
+      this.index = index;
+      this.name = name;
+      this.accessor = accessor;
+      this.accessor.setAccessible(true);
+      this.javaType = MAPPER.getTypeFactory().constructType(valueType);
+      this.rawType = javaType.getRawClass();
+      this.collection = Iterable.class.isAssignableFrom(rawType);
+      this.map = Map.class.isAssignableFrom(rawType) || javaslang.collection.Map.class.isAssignableFrom(rawType);
+
+      Type element = valueType;
+      if (collection) {
+        element = typeArgument(valueType, 0);
+      } else if (map) {
+        element = typeArgument(typeArgument(valueType, 1), 0);
+      }
+      this.itemsType = map ? rawClass(typeArgument(valueType, 1)) : rawType;
+      Class<?> elementClass = rawClass(element);
+      this.elementType = isBindable(elementClass) ? elementClass : null;
+    }
+
+    Object toMap(LinkedHashMap<String, Object> items) {
+      if (rawType.isAssignableFrom(LinkedHashMap.class)) {
+        return items;
+      } else {
+        return items.toJavaMap(t -> t);
+      }
+    }
+  }
+
+  private static final class BoundInvocationHandler
+      implements InvocationHandler {
+
+    private final BeanBinder binder;
+    private final Object[] values;
+
+    BoundInvocationHandler(BeanBinder binder, Object[] values) {
+      this.binder = binder;
+      this.values = values;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      Slot slot = binder.accessors.get(method);
+      if (slot != null) {
+        return values[slot.index];
+      } else if ("equals".equals(method.getName()) && args != null && args.length == 1) {
+        return proxy == args[0];
+      } else if ("hashCode".equals(method.getName()) && args == null) {
+        return System.identityHashCode(proxy);
+      } else if ("toString".equals(method.getName()) && args == null) {
+        return binder.type.getSimpleName() + Arrays.toString(values);
+      } else {
+        throw new UnsupportedOperationException(method.toString());
+      }
+    }
+  }
+
+  private static boolean isBindable(Class<?> type) {
+    if (type == null || !type.isInterface()) {
+      return false;
+    }
+    String packageName = type.getName();
+    return ReadableRepresentation.class.isAssignableFrom(type)
+           || !(packageName.startsWith("java.") || packageName.startsWith("javaslang."));
+  }
+
+  private static Type typeArgument(Type type, int index) {
+    if (type instanceof ParameterizedType) {
+      Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+      return arguments.length > index ? arguments[index] : null;
+    }
+    return null;
+  }
+
+  private static Class<?> rawClass(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>) type;
+    } else if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    } else {
+      return null;
+    }
+  }
+}
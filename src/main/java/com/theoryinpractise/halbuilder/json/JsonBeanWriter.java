@@ -0,0 +1,252 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.Ordering;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import javaslang.Tuple2;
+import javaslang.collection.Set;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.theoryinpractise.halbuilder.api.RepresentationFactory.STRIP_NULLS;
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+
+/**
+ * Serializes plain beans straight to HAL+JSON without first building a Representation.
+ *
+ * Beans are described either by their own class, or by an interface they implement, following the same
+ * conventions as {@code InterfaceContract}: a {@code getLinks()} accessor returning links is rendered as
+ * {@code _links}, a {@code getEmbedded()} accessor returning a {@code java.util.Map} or javaslang {@code Map} of rel
+ * to beans (or representations) is rendered as {@code _embedded}, and every other accessor is rendered as a property.
+ */
+public class JsonBeanWriter {
+
+  private static final String LINKS_PROPERTY = "links";
+  private static final String EMBEDDED_PROPERTY = "embedded";
+
+  private static final ConcurrentMap<Class<?>, BeanSerializer> SERIALIZERS = new ConcurrentHashMap<>();
+
+  private final JsonRepresentationWriter representationWriter = new JsonRepresentationWriter();
+
+  public void write(Object bean, Set<URI> flags, Writer writer) {
+    write(bean, bean.getClass(), flags, writer);
+  }
+
+  public void write(Object bean, Class<?> type, Set<URI> flags, Writer writer) {
+    try {
+      JsonGenerator g = representationWriter.getJsonGenerator(flags, writer);
+      g.writeStartObject();
+      writeBean(flags, g, bean, type);
+      g.writeEndObject();
+      g.close();
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+  }
+
+  /**
+   * Write the fields of the given bean into the currently open object of the generator.
+   */
+  public void writeBean(Set<URI> flags, JsonGenerator g, Object bean, Class<?> type)
+      throws IOException {
+    BeanSerializer serializer = SERIALIZERS.computeIfAbsent(type, BeanSerializer::new);
+
+    if (serializer.links != null) {
+      writeLinks(g, (Iterable<?>) invoke(serializer.links, bean));
+    }
+
+    for (Property property : serializer.properties) {
+      Object value = invoke(property.accessor, bean);
+      if (value != null) {
+        g.writeObjectField(property.name, value);
+      } else if (!flags.contains(STRIP_NULLS)) {
+        g.writeNullField(property.name);
+      }
+    }
+
+    if (serializer.embedded != null) {
+      writeEmbedded(flags, g, invoke(serializer.embedded, bean));
+    }
+  }
+
+  private void writeLinks(JsonGenerator g, Iterable<?> links)
+      throws IOException {
+    if (links == null || !links.iterator().hasNext()) {
+      return;
+    }
+
+    Multimap<String, Link> linkMap = Multimaps.index(Iterables.filter(links, Link.class), Link::getRel);
+
+    g.writeObjectFieldStart(LINKS);
+    for (Map.Entry<String, Collection<Link>> linkEntry : linkMap.asMap().entrySet()) {
+      if (linkEntry.getValue().size() == 1) {
+        g.writeObjectFieldStart(linkEntry.getKey());
+        JsonRepresentationWriter.writeJsonLinkContent(g, linkEntry.getValue().iterator().next());
+        g.writeEndObject();
+      } else {
+        g.writeArrayFieldStart(linkEntry.getKey());
+        for (Link link : linkEntry.getValue()) {
+          g.writeStartObject();
+          JsonRepresentationWriter.writeJsonLinkContent(g, link);
+          g.writeEndObject();
+        }
+        g.writeEndArray();
+      }
+    }
+    g.writeEndObject();
+  }
+
+  private void writeEmbedded(Set<URI> flags, JsonGenerator g, Object embeddedValue)
+      throws IOException {
+    if (embeddedValue instanceof Map && !((Map<?, ?>) embeddedValue).isEmpty()) {
+      g.writeObjectFieldStart(EMBEDDED);
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) embeddedValue).entrySet()) {
+        writeEmbeddedRel(flags, g, entry.getKey(), entry.getValue());
+      }
+      g.writeEndObject();
+    } else if (embeddedValue instanceof javaslang.collection.Map
+               && !((javaslang.collection.Map<?, ?>) embeddedValue).isEmpty()) {
+      g.writeObjectFieldStart(EMBEDDED);
+      for (Tuple2<?, ?> entry : (javaslang.collection.Map<?, ?>) embeddedValue) {
+        writeEmbeddedRel(flags, g, entry._1, entry._2);
+      }
+      g.writeEndObject();
+    }
+  }
+
+  private void writeEmbeddedRel(Set<URI> flags, JsonGenerator g, Object key, Object value)
+      throws IOException {
+    String rel = String.valueOf(key);
+    if (value instanceof Iterable) {
+      g.writeArrayFieldStart(rel);
+      for (Object item : (Iterable<?>) value) {
+        writeEmbeddedValue(flags, g, item);
+      }
+      g.writeEndArray();
+    } else if (value != null) {
+      g.writeFieldName(rel);
+      writeEmbeddedValue(flags, g, value);
+    }
+  }
+
+  private void writeEmbeddedValue(Set<URI> flags, JsonGenerator g, Object value)
+      throws IOException {
+    g.writeStartObject();
+    if (value instanceof ReadableRepresentation) {
+      representationWriter.renderJson(flags, g, (ReadableRepresentation) value, true);
+    } else {
+      writeBean(flags, g, value, value.getClass());
+    }
+    g.writeEndObject();
+  }
+
+  /**
+   * Accessors for a single bean type, introspected once and shared by all writers.
+   */
+  private static final class BeanSerializer {
+
+    private final Method links;
+    private final Method embedded;
+    private final ImmutableList<Property> properties;
+
+    BeanSerializer(Class<?> type) {
+      Method linksMethod = null;
+      Method embeddedMethod = null;
+      ImmutableList.Builder<Property> propertiesBuilder = ImmutableList.builder();
+
+      for (Property property : introspect(type)) {
+        if (LINKS_PROPERTY.equals(property.name) && Iterable.class.isAssignableFrom(property.accessor.getReturnType())) {
+          linksMethod = property.accessor;
+        } else if (EMBEDDED_PROPERTY.equals(property.name) && isMap(property.accessor.getReturnType())) {
+          embeddedMethod = property.accessor;
+        } else {
+          propertiesBuilder.add(property);
+        }
+      }
+
+      this.links = linksMethod;
+      this.embedded = embeddedMethod;
+      this.properties = propertiesBuilder.build();
+    }
+
+    private static boolean isMap(Class<?> type) {
+      return Map.class.isAssignableFrom(type) || javaslang.collection.Map.class.isAssignableFrom(type);
+    }
+  }
+
+  private static final class Property {
+    private final String name;
+    private final Method accessor;
+
+    Property(String name, Method accessor) {
+      this.name = name;
+      this.accessor = accessor;
+      this.accessor.setAccessible(true);
+    }
+  }
+
+  private static Object invoke(Method method, Object bean) {
+    try {
+      return method.invoke(bean);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  private static ImmutableList<Property> introspect(Class<?> type) {
+    if (type.isInterface()) {
+      // Interfaces may use either bean style getters or plain accessors, i.e. name()
+      ImmutableList.Builder<Property> properties = ImmutableList.builder();
+      for (Method method : type.getMethods()) {
+        if (method.getParameterCount() == 0
+            && method.getReturnType() != Void.TYPE
+            && !Modifier.isStatic(method.getModifiers())
+            && method.getDeclaringClass() != Object.class) {
+          properties.add(new Property(propertyName(method.getName()), method));
+        }
+      }
+      return Ordering.natural().onResultOf((Property p) -> p.name).immutableSortedCopy(properties.build());
+    } else {
+      try {
+        ImmutableList.Builder<Property> properties = ImmutableList.builder();
+        for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+          if (descriptor.getReadMethod() != null) {
+            properties.add(new Property(descriptor.getName(), descriptor.getReadMethod()));
+          }
+        }
+        return properties.build();
+      } catch (IntrospectionException e) {
+        throw new RepresentationException(e.getMessage(), e);
+      }
+    }
+  }
+
+  static String propertyName(String methodName) {
+    if (methodName.startsWith("get") && methodName.length() > 3) {
+      return Introspector.decapitalize(methodName.substring(3));
+    } else if (methodName.startsWith("is") && methodName.length() > 2) {
+      return Introspector.decapitalize(methodName.substring(2));
+    } else {
+      return methodName;
+    }
+  }
+}
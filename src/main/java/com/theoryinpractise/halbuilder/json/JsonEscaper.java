@@ -0,0 +1,52 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Escapes text written with {@code writeRaw} inside a string value exactly as the target generator would escape it,
+ * honouring its {@code ESCAPE_NON_ASCII} feature and character escapes. Escapers are not thread safe.
+ */
+final class JsonEscaper {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final JsonGenerator target;
+  private final StringWriter scratch = new StringWriter();
+  private final JsonGenerator escaper;
+
+  JsonEscaper(JsonGenerator target)
+      throws IOException {
+    this.target = target;
+    this.escaper = JSON_FACTORY.createGenerator(scratch);
+    escaper.setRootValueSeparator(null);
+    escaper.setHighestNonEscapedChar(target.getHighestEscapedChar());
+    if (target.getCharacterEscapes() != null) {
+      escaper.setCharacterEscapes(target.getCharacterEscapes());
+    }
+  }
+
+  /**
+   * Write the escaped text, without quotes, to the target generator.
+   */
+  void writeEscaped(char[] text, int offset, int length)
+      throws IOException {
+    escaper.writeString(text, offset, length);
+    escaper.flush();
+    StringBuffer quoted = scratch.getBuffer();
+    char[] escaped = new char[quoted.length() - 2];
+    quoted.getChars(1, quoted.length() - 1, escaped, 0);
+    quoted.setLength(0);
+    target.writeRaw(escaped, 0, escaped.length);
+  }
+
+  void writeEscaped(String text)
+      throws IOException {
+    char[] chars = text.toCharArray();
+    writeEscaped(chars, 0, chars.length);
+  }
+
+}
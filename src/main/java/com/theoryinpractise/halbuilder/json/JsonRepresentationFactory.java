@@ -1,14 +1,215 @@
 package com.theoryinpractise.halbuilder.json;
 
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.google.common.cache.CacheStats;
 import com.theoryinpractise.halbuilder.DefaultRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationReader;
+import com.theoryinpractise.halbuilder.api.RepresentationWriter;
+import javaslang.collection.HashSet;
+import javaslang.collection.Set;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Simple representation factory configured for JSON usage.
  */
 public class JsonRepresentationFactory
     extends DefaultRepresentationFactory {
+
+  private static final JsonRepresentationWriter JSON_WRITER = new JsonRepresentationWriter();
+
+  /**
+   * Renderers and readers registered as instances or suppliers, looked up before the reflectively created ones.
+   */
+  private final Map<String, Supplier<? extends RepresentationWriter<String>>> renderers = new HashMap<>();
+  private final Map<String, RepresentationReader> readers = new HashMap<>();
+
   public JsonRepresentationFactory() {
     withRenderer(HAL_JSON, JsonRepresentationWriter.class);
     withReader(HAL_JSON, JsonRepresentationReader.class);
   }
+
+  @Override
+  public DefaultRepresentationFactory withRenderer(String contentType,
+                                                   Class<? extends RepresentationWriter<String>> rendererClass) {
+    if (JsonRepresentationWriter.class.equals(rendererClass)) {
+      renderers.put(contentType, () -> JSON_WRITER);
+    } else {
+      renderers.remove(contentType);
+    }
+    return super.withRenderer(contentType, rendererClass);
+  }
+
+  /**
+   * Register a renderer without reflection, the supplier is called on every lookup.
+   */
+  public JsonRepresentationFactory withRenderer(String contentType,
+                                                Supplier<? extends RepresentationWriter<String>> renderer) {
+    renderers.put(contentType, renderer);
+    return this;
+  }
+
+  @Override
+  public DefaultRepresentationFactory withReader(String contentType, Class<? extends RepresentationReader> readerClass) {
+    if (JsonRepresentationReader.class.equals(readerClass)) {
+      readers.put(contentType, new JsonRepresentationReader(this));
+    } else {
+      readers.remove(contentType);
+    }
+    return super.withReader(contentType, readerClass);
+  }
+
+  /**
+   * Register a reader instance without reflection, it is shared by every read so must be thread safe.
+   */
+  public JsonRepresentationFactory withReader(String contentType, RepresentationReader reader) {
+    readers.put(contentType, reader);
+    return this;
+  }
+
+  /**
+   * Share parsed representations between identical HAL+JSON documents, keeping at most the given number of
+   * characters of documents cached.
+   */
+  public JsonRepresentationFactory withCachedReads(long maximumCharacters) {
+    return withReader(HAL_JSON, new CachingJsonRepresentationReader(this, maximumCharacters));
+  }
+
+  /**
+   * Share one representation between structurally identical embedded resources with a self link within each
+   * HAL+JSON document read. Use a {@link CachingJsonRepresentationReader} created with {@code deduplicateEmbeds} to
+   * combine this with cached reads.
+   */
+  public JsonRepresentationFactory withDeduplicatedEmbeds() {
+    return withReader(HAL_JSON, new JsonRepresentationReader(this, true));
+  }
+
+  /**
+   * Parse the items of large top level embedded arrays in parallel on the common ForkJoinPool, see
+   * {@link ParallelJsonRepresentationReader}.
+   */
+  public JsonRepresentationFactory withParallelReads() {
+    return withReader(HAL_JSON, new ParallelJsonRepresentationReader(this));
+  }
+
+  /**
+   * Learn the field layout of the HAL+JSON documents read from each of up to the given number of endpoints, see
+   * {@link ShapeLearningJsonRepresentationReader} and {@link #readRepresentation(String, String, Reader)}.
+   */
+  public JsonRepresentationFactory withShapeLearningReads(long maximumEndpoints) {
+    return withReader(HAL_JSON, new ShapeLearningJsonRepresentationReader(this, maximumEndpoints));
+  }
+
+  /**
+   * Hit and miss statistics of the read cache, empty unless enabled with {@link #withCachedReads(long)}.
+   */
+  public CacheStats getReadCacheStats() {
+    RepresentationReader reader = readers.get(HAL_JSON);
+    return reader instanceof CachingJsonRepresentationReader
+           ? ((CachingJsonRepresentationReader) reader).stats()
+           : new CacheStats(0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Render and read back a small representation with every supported flag combination, so the Jackson factories,
+   * serializers and deserializers are built now rather than on the first request.
+   */
+  public JsonRepresentationFactory warmUp() {
+    ReadableRepresentation representation =
+        newRepresentation("/warm-up")
+            .withNamespace("ns", "/rels/{rel}")
+            .withLink("ns:item", "/warm-up/1", "item", "Item", "en", "/profile")
+            .withProperty("string", "value")
+            .withProperty("integer", 1)
+            .withProperty("long", Long.MAX_VALUE)
+            .withProperty("decimal", BigDecimal.ONE)
+            .withProperty("boolean", true)
+            .withProperty("null", null)
+            .withProperty("list", Arrays.asList("a", "b"))
+            .withProperty("map", Collections.singletonMap("key", "value"))
+            .withRepresentation("ns:item", newRepresentation("/warm-up/1").withProperty("string", "value"));
+
+    RepresentationWriter<String> writer = lookupRenderer(HAL_JSON);
+    String json = null;
+    for (Set<URI> flags : Arrays.asList(HashSet.<URI>empty(),
+                                        HashSet.of(PRETTY_PRINT),
+                                        HashSet.of(STRIP_NULLS),
+                                        HashSet.of(JsonRepresentationWriter.CANONICAL),
+                                        HashSet.of(STRIP_NULLS, JsonRepresentationWriter.CANONICAL))) {
+      StringWriter output = new StringWriter();
+      writer.write(representation, flags, output);
+      json = output.toString();
+    }
+    readRepresentation(HAL_JSON, new StringReader(json));
+    return this;
+  }
+
+  @Override
+  public RepresentationWriter<String> lookupRenderer(String contentType) {
+    Supplier<? extends RepresentationWriter<String>> renderer = renderers.get(contentType);
+    return renderer != null ? renderer.get() : super.lookupRenderer(contentType);
+  }
+
+  @Override
+  public ReadableRepresentation readRepresentation(String contentType, Reader reader) {
+    RepresentationReader representationReader = readers.get(contentType);
+    if (representationReader != null) {
+      return representationReader.read(reader);
+    }
+    return super.readRepresentation(contentType, reader);
+  }
+
+  /**
+   * Read a document received from the given endpoint, letting shape learning readers match it against the layout
+   * of the documents read from there before. Other readers ignore the endpoint.
+   */
+  public ReadableRepresentation readRepresentation(String contentType, String endpoint, Reader reader) {
+    RepresentationReader representationReader = readers.get(contentType);
+    if (representationReader instanceof ShapeLearningJsonRepresentationReader) {
+      return ((ShapeLearningJsonRepresentationReader) representationReader).read(endpoint, reader);
+    }
+    return readRepresentation(contentType, reader);
+  }
+
+  /**
+   * Read a document from its bytes, letting JSON readers parse them without decoding them first. Other readers are
+   * given the bytes decoded as UTF-8.
+   */
+  public ReadableRepresentation readRepresentation(String contentType, InputStream inputStream) {
+    RepresentationReader representationReader = readers.get(contentType);
+    if (representationReader instanceof JsonRepresentationReader) {
+      return ((JsonRepresentationReader) representationReader).read(inputStream);
+    }
+    return readRepresentation(contentType, new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+  }
+
+  public ReadableRepresentation readRepresentation(String contentType, byte[] source, int offset, int length) {
+    RepresentationReader representationReader = readers.get(contentType);
+    if (representationReader instanceof JsonRepresentationReader) {
+      return ((JsonRepresentationReader) representationReader).read(source, offset, length);
+    }
+    return readRepresentation(contentType, new StringReader(JsonRepresentationReader.decode(source, offset, length)));
+  }
+
+  public ReadableRepresentation readRepresentation(String contentType, ByteBuffer source) {
+    RepresentationReader representationReader = readers.get(contentType);
+    if (representationReader instanceof JsonRepresentationReader) {
+      return ((JsonRepresentationReader) representationReader).read(source);
+    }
+    return readRepresentation(contentType, new ByteBufferBackedInputStream(source.duplicate()));
+  }
 }
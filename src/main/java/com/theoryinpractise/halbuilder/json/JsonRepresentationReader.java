@@ -1,10 +1,15 @@
 package com.theoryinpractise.halbuilder.json;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.google.common.base.Throwables;
 import com.google.common.io.CharStreams;
+import com.google.common.io.CountingInputStream;
 import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
 import com.theoryinpractise.halbuilder.api.RepresentationException;
 import com.theoryinpractise.halbuilder.api.RepresentationReader;
 import com.theoryinpractise.halbuilder.impl.api.Support;
@@ -13,10 +18,14 @@ import javaslang.collection.TreeMap;
 import javaslang.control.Option;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -30,24 +39,144 @@ import static com.theoryinpractise.halbuilder.impl.api.Support.NAME;
 import static com.theoryinpractise.halbuilder.impl.api.Support.PROFILE;
 import static com.theoryinpractise.halbuilder.impl.api.Support.TITLE;
 
+/**
+ * Reads HAL+JSON documents into PersistentRepresentations.
+ *
+ * Readers hold no per document state, and share a single pre-configured ObjectMapper (and with it the symbol
+ * tables and recycled parser buffers of its JsonFactory), so one instance can safely be shared across threads.
+ *
+ * Readers created with {@code deduplicateEmbeds} return one shared representation for every embedded resource of a
+ * document that has a self link and is structurally identical to one read before, so repeated embeds are parsed
+ * and retained once.
+ */
 public class JsonRepresentationReader
     implements RepresentationReader {
 
-  private final ObjectMapper mapper;
+  static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ObjectReader NODE_READER = MAPPER.readerFor(JsonNode.class);
+  private static final ObjectReader MAP_READER = MAPPER.readerFor(Map.class);
+
   private final AbstractRepresentationFactory representationFactory;
+  final boolean deduplicateEmbeds;
 
   public JsonRepresentationReader(AbstractRepresentationFactory representationFactory) {
+    this(representationFactory, false);
+  }
+
+  public JsonRepresentationReader(AbstractRepresentationFactory representationFactory, boolean deduplicateEmbeds) {
     this.representationFactory = representationFactory;
-    this.mapper = new ObjectMapper();
+    this.deduplicateEmbeds = deduplicateEmbeds;
+  }
+
+  /**
+   * Read a UTF-8 encoded document into a representation that only indexes its top level fields.
+   *
+   * Property values are decoded individually when requested, and re-rendered verbatim when unchanged.
+   */
+  public ReadableRepresentation readLazily(byte[] source) {
+    try {
+      return JsonSliceRepresentation.newRepresentation(this, source);
+    } catch (Exception e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
   }
 
   public PersistentRepresentation read(Reader reader) {
     try {
-      String source = CharStreams.toString(reader);
+      return read(CharStreams.toString(reader));
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Read a document straight from its bytes, detecting UTF-8, UTF-16 and UTF-32 encodings.
+   *
+   * The document is parsed without first being decoded into a String, so unlike {@link #read(Reader)} the returned
+   * representation has no content. This holds for every byte read of every JsonRepresentationReader. The stream is
+   * left open.
+   */
+  public PersistentRepresentation read(InputStream inputStream) {
+    CountingInputStream countingInputStream = new CountingInputStream(inputStream);
+    try (JsonParser p = MAPPER.getFactory().createParser(countingInputStream)) {
+      p.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      Object event = HalFlightRecorder.READ.begin();
+      PersistentRepresentation representation = readResource(NODE_READER.<JsonNode>readValue(p));
+      HalFlightRecorder.READ.commit(event, countingInputStream.getCount(), representation, null, null);
+      return representation;
+    } catch (Exception e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  public PersistentRepresentation read(byte[] source, int offset, int length) {
+    try {
+      Object event = HalFlightRecorder.READ.begin();
+      PersistentRepresentation representation = readResource(NODE_READER.<JsonNode>readValue(source, offset, length));
+      HalFlightRecorder.READ.commit(event, length, representation, null, null);
+      return representation;
+    } catch (Exception e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Read the remaining bytes of the buffer, without changing its position.
+   */
+  public PersistentRepresentation read(ByteBuffer source) {
+    if (source.hasArray()) {
+      return read(source.array(), source.arrayOffset() + source.position(), source.remaining());
+    }
+    return read(new ByteBufferBackedInputStream(source.duplicate()));
+  }
+
+  /**
+   * Decode a document the way {@link #read(byte[], int, int)} would, for readers which need its characters.
+   */
+  static String decode(byte[] source, int offset, int length) {
+    int b0 = length > 0 ? source[offset] & 0xFF : -1;
+    int b1 = length > 1 ? source[offset + 1] & 0xFF : -1;
+    int b2 = length > 2 ? source[offset + 2] & 0xFF : -1;
+    int b3 = length > 3 ? source[offset + 3] & 0xFF : -1;
+
+    int bom = 0;
+    Charset charset = StandardCharsets.UTF_8;
+    if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+      bom = 3;
+    } else if (b0 == 0 && b1 == 0 && b2 == 0xFE && b3 == 0xFF) {
+      bom = 4;
+      charset = Charset.forName("UTF-32BE");
+    } else if (b0 == 0xFF && b1 == 0xFE && b2 == 0 && b3 == 0) {
+      bom = 4;
+      charset = Charset.forName("UTF-32LE");
+    } else if (b0 == 0xFE && b1 == 0xFF) {
+      bom = 2;
+      charset = StandardCharsets.UTF_16BE;
+    } else if (b0 == 0xFF && b1 == 0xFE) {
+      bom = 2;
+      charset = StandardCharsets.UTF_16LE;
+    } else if (b0 == 0 && b1 == 0 && b2 == 0 && b3 > 0) {
+      // Without a BOM, the first character is ASCII so the position of the zero bytes gives the encoding away
+      charset = Charset.forName("UTF-32BE");
+    } else if (b0 > 0 && b1 == 0 && b2 == 0 && b3 == 0) {
+      charset = Charset.forName("UTF-32LE");
+    } else if (b0 == 0 && b1 > 0) {
+      charset = StandardCharsets.UTF_16BE;
+    } else if (b0 > 0 && b1 == 0) {
+      charset = StandardCharsets.UTF_16LE;
+    }
+    return new String(source, offset + bom, length - bom, charset);
+  }
+
+  PersistentRepresentation read(String source) {
+    try {
+      Object event = HalFlightRecorder.READ.begin();
 
-      JsonNode rootNode = mapper.readValue(new StringReader(source), JsonNode.class);
+      JsonNode rootNode = NODE_READER.readTree(source);
 
-      return readResource(rootNode).withContent(source);
+      PersistentRepresentation representation = readResource(rootNode).withContent(source);
+      HalFlightRecorder.READ.commit(event, source.length(), representation, null, null);
+      return representation;
 
     } catch (Exception e) {
       throw new RepresentationException(e.getMessage(), e);
@@ -55,22 +184,31 @@ public class JsonRepresentationReader
 
   }
 
-  private PersistentRepresentation readResource(JsonNode rootNode) {
+  PersistentRepresentation readResource(JsonNode rootNode) {
+    return readResource(rootNode, deduplicateEmbeds ? new HashMap<>() : null);
+  }
+
+  PersistentRepresentation readResource(JsonNode rootNode, Map<JsonNode, PersistentRepresentation> embeds) {
 
-    Option<PersistentRepresentation> resource = Option.of(
-        new PersistentRepresentation(representationFactory, null));
+    Option<PersistentRepresentation> resource = Option.of(newResource());
 
-    return resource.map(r -> readNamespaces(rootNode, r))
-                   .map(r -> readLinks(rootNode, r))
+    return resource.map(r -> readNamespaces(rootNode.get(LINKS), r))
+                   .map(r -> readLinks(rootNode.get(LINKS), r))
                    .map(r -> readProperties(rootNode, r))
-                   .map(r -> readResources(rootNode, r))
+                   .map(r -> readResources(rootNode.get(EMBEDDED), r, embeds))
                    .get();
   }
 
-  private PersistentRepresentation readNamespaces(JsonNode rootNode, PersistentRepresentation resource) {
+  PersistentRepresentation newResource() {
+    return new PersistentRepresentation(representationFactory, null);
+  }
+
+  /**
+   * Read the CURIEs of the {@code _links} node, which is null when the resource has no links.
+   */
+  PersistentRepresentation readNamespaces(JsonNode linksNode, PersistentRepresentation resource) {
     PersistentRepresentation newRep = resource;
-    if (rootNode.has(LINKS)) {
-      JsonNode linksNode = rootNode.get(LINKS);
+    if (linksNode != null) {
       if (linksNode.has(CURIES)) {
         JsonNode curieNode = linksNode.get(CURIES);
 
@@ -78,20 +216,22 @@ public class JsonRepresentationReader
           Iterator<JsonNode> values = curieNode.elements();
           while (values.hasNext()) {
             JsonNode valueNode = values.next();
-            newRep = newRep.withNamespace(valueNode.get(NAME).asText(), valueNode.get(HREF).asText());
+            newRep = newRep.withNamespace(requiredNodeValueAsText(valueNode, CURIES, NAME),
+                                          requiredNodeValueAsText(valueNode, CURIES, HREF));
           }
         } else {
-          newRep = newRep.withNamespace(curieNode.get(NAME).asText(), curieNode.get(HREF).asText());
+          newRep = newRep.withNamespace(requiredNodeValueAsText(curieNode, CURIES, NAME),
+                                        requiredNodeValueAsText(curieNode, CURIES, HREF));
         }
       }
     }
     return newRep;
   }
 
-  private PersistentRepresentation readLinks(JsonNode rootNode, PersistentRepresentation resource) {
+  PersistentRepresentation readLinks(JsonNode linksNode, PersistentRepresentation resource) {
     PersistentRepresentation newRep = resource;
-    if (rootNode.has(LINKS)) {
-      Iterator<Map.Entry<String, JsonNode>> fields = rootNode.get(LINKS).fields();
+    if (linksNode != null) {
+      Iterator<Map.Entry<String, JsonNode>> fields = linksNode.fields();
       while (fields.hasNext()) {
         Map.Entry<String, JsonNode> keyNode = fields.next();
         if (!CURIES.equals((keyNode.getKey()))) {
@@ -113,7 +253,7 @@ public class JsonRepresentationReader
   private PersistentRepresentation withJsonLink(PersistentRepresentation resource, Map.Entry<String, JsonNode> keyNode,
                                                 JsonNode valueNode) {
     String rel = keyNode.getKey();
-    String href = valueNode.get(HREF).asText();
+    String href = requiredNodeValueAsText(valueNode, rel, HREF);
     String name = optionalNodeValueAsText(valueNode, NAME);
     String title = optionalNodeValueAsText(valueNode, TITLE);
     String hreflang = optionalNodeValueAsText(valueNode, HREFLANG);
@@ -122,6 +262,14 @@ public class JsonRepresentationReader
     return resource.withLink(rel, href, name, title, hreflang, profile);
   }
 
+  private static String requiredNodeValueAsText(JsonNode node, String rel, String key) {
+    JsonNode value = node.get(key);
+    if (value == null || value.isNull()) {
+      throw new RepresentationException("Link '" + rel + "' has no " + key);
+    }
+    return value.asText();
+  }
+
   String optionalNodeValueAsText(JsonNode node, String key) {
     JsonNode value = node.get(key);
     return value != null ? value.asText() : null;
@@ -129,23 +277,16 @@ public class JsonRepresentationReader
 
   private PersistentRepresentation readProperties(JsonNode rootNode, PersistentRepresentation resource) {
     try {
+      Object event = HalFlightRecorder.PROPERTY.begin();
       PersistentRepresentation newRep = resource;
       Iterator<String> fieldNames = rootNode.fieldNames();
       while (fieldNames.hasNext()) {
         String fieldName = fieldNames.next();
         if (!Support.RESERVED_JSON_PROPERTIES.contains(fieldName)) {
-          JsonNode field = rootNode.get(fieldName);
-          if (field.isArray()) {
-            List<Object> arrayValues = new ArrayList<Object>(field.size());
-            for (JsonNode arrayValue : field) {
-              arrayValues.add(valueFromNode(arrayValue));
-            }
-            newRep = newRep.withProperty(fieldName, arrayValues);
-          } else {
-            newRep = newRep.withProperty(fieldName, valueFromNode(field));
-          }
+          newRep = newRep.withProperty(fieldName, propertyValue(rootNode.get(fieldName)));
         }
       }
+      HalFlightRecorder.PROPERTY.commit(event, -1, newRep, null, null);
       return newRep;
     } catch (IOException e) {
       throw Throwables.propagate(e);
@@ -153,12 +294,24 @@ public class JsonRepresentationReader
 
   }
 
-  private Object valueFromNode(JsonNode field) throws IOException {
+  static Object propertyValue(JsonNode field) throws IOException {
+    if (field.isArray()) {
+      List<Object> arrayValues = new ArrayList<Object>(field.size());
+      for (JsonNode arrayValue : field) {
+        arrayValues.add(valueFromNode(arrayValue));
+      }
+      return arrayValues;
+    } else {
+      return valueFromNode(field);
+    }
+  }
+
+  private static Object valueFromNode(JsonNode field) throws IOException {
     if (field.isNull()) {
       return null;
     } else {
       if (field.isContainerNode()) {
-        return fromJavaMap(mapper.readValue(field.toString(), Map.class));
+        return fromJavaMap(MAP_READER.<Map<String, Object>>readValue(field));
       } else {
         if (field.isBigDecimal()) {
           return field.decimalValue();
@@ -175,7 +328,7 @@ public class JsonRepresentationReader
     }
   }
 
-  private TreeMap<String, Object> fromJavaMap(java.util.Map<String, Object> map) {
+  private static TreeMap<String, Object> fromJavaMap(java.util.Map<String, Object> map) {
     TreeMap<String, Object> returnMap = TreeMap.empty(Comparator.naturalOrder());
     for (java.util.Map.Entry<String, Object> entry : map.entrySet()) {
       returnMap = returnMap.put(entry.getKey(), entry.getValue());
@@ -183,20 +336,21 @@ public class JsonRepresentationReader
     return returnMap;
   }
 
-  private PersistentRepresentation readResources(JsonNode rootNode, PersistentRepresentation resource) {
-    if (rootNode.has(EMBEDDED)) {
+  PersistentRepresentation readResources(JsonNode embeddedNode, PersistentRepresentation resource,
+                                         Map<JsonNode, PersistentRepresentation> embeds) {
+    if (embeddedNode != null) {
       PersistentRepresentation newResource = resource;
-      Iterator<Map.Entry<String, JsonNode>> fields = rootNode.get(EMBEDDED).fields();
+      Iterator<Map.Entry<String, JsonNode>> fields = embeddedNode.fields();
       while (fields.hasNext()) {
         Map.Entry<String, JsonNode> keyNode = fields.next();
         if (keyNode.getValue().isArray()) {
           Iterator<JsonNode> values = keyNode.getValue().elements();
           while (values.hasNext()) {
             JsonNode valueNode = values.next();
-            newResource = newResource.withRepresentation(keyNode.getKey(), readResource(valueNode));
+            newResource = newResource.withRepresentation(keyNode.getKey(), readEmbedded(valueNode, embeds));
           }
         } else {
-          newResource = newResource.withRepresentation(keyNode.getKey(), readResource(keyNode.getValue()));
+          newResource = newResource.withRepresentation(keyNode.getKey(), readEmbedded(keyNode.getValue(), embeds));
         }
       }
       return newResource;
@@ -204,4 +358,24 @@ public class JsonRepresentationReader
       return resource;
     }
   }
+
+  /**
+   * JsonNode equality is structural, so identical embeds with a self link map to the representation stored first.
+   * Concurrent readers of a shared map may both read an embed, but only the first one stored is ever returned.
+   * Nested embeds update the map while an embed is read, so it cannot be done in computeIfAbsent.
+   */
+  PersistentRepresentation readEmbedded(JsonNode node, Map<JsonNode, PersistentRepresentation> embeds) {
+    if (embeds == null || !node.path(LINKS).path(Support.SELF).has(HREF)) {
+      return readResource(node, embeds);
+    }
+    PersistentRepresentation representation = embeds.get(node);
+    if (representation == null) {
+      representation = readResource(node, embeds);
+      PersistentRepresentation stored = embeds.putIfAbsent(node, representation);
+      if (stored != null) {
+        representation = stored;
+      }
+    }
+    return representation;
+  }
 }
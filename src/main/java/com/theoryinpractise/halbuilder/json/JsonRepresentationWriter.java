@@ -1,14 +1,24 @@
 package com.theoryinpractise.halbuilder.json;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.google.common.base.Strings;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.HashingOutputStream;
+import com.google.common.io.CountingOutputStream;
 import com.theoryinpractise.halbuilder.api.Link;
 import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
 import com.theoryinpractise.halbuilder.api.Rel;
@@ -21,12 +31,19 @@ import javaslang.collection.List;
 import javaslang.collection.Set;
 import javaslang.control.Option;
 
+import java.io.FilterWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static com.theoryinpractise.halbuilder.impl.api.Support.CURIES;
 import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
@@ -41,34 +58,188 @@ import static com.theoryinpractise.halbuilder.impl.api.Support.TITLE;
 public class JsonRepresentationWriter
     implements RepresentationWriter<String> {
 
+  /**
+   * Render byte stable output: properties, link rels, links and embedded rels are sorted, map keys are ordered and
+   * numbers are written in their shortest plain decimal form, so equal representations always produce equal bytes.
+   */
+  public static final URI CANONICAL = URI.create("urn:halbuilder:json:canonical");
+
+  private static final JsonFactory JSON_FACTORY = createJsonFactory(false, false);
+  private static final JsonFactory STRIP_NULLS_JSON_FACTORY = createJsonFactory(true, false);
+  private static final JsonFactory CANONICAL_JSON_FACTORY = createJsonFactory(false, true);
+  private static final JsonFactory STRIP_NULLS_CANONICAL_JSON_FACTORY = createJsonFactory(true, true);
+
+  private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+
+  private static final Comparator<Link> LINK_ORDER = Comparator.comparing(Link::getRel)
+                                                               .thenComparing(Link::getHref, NULLS_FIRST)
+                                                               .thenComparing(Link::getName, NULLS_FIRST)
+                                                               .thenComparing(Link::getTitle, NULLS_FIRST)
+                                                               .thenComparing(Link::getHreflang, NULLS_FIRST)
+                                                               .thenComparing(Link::getProfile, NULLS_FIRST);
+
+  /**
+   * Recycled output buffers growing beyond this many characters are released rather than kept for reuse.
+   */
+  private static final int MAX_RECYCLED_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Idle pretty printers and buffers of recycling writers. A write takes them out while it uses them, so a nested
+   * write on the same thread, such as a property serializer rendering another representation, gets fresh ones.
+   */
+  private static final ThreadLocal<DefaultPrettyPrinter> PRETTY_PRINTERS = new ThreadLocal<>();
+  private static final ThreadLocal<RecyclableStringWriter> BUFFERS = new ThreadLocal<>();
+
+  private final boolean recycling;
+
+  public JsonRepresentationWriter() {
+    this(false);
+  }
+
+  /**
+   * Create a writer, optionally reusing pretty printers and string output buffers held per thread.
+   *
+   * Generator buffers are always recycled by the shared JsonFactory, recycling additionally avoids allocating
+   * per write state that Jackson does not pool itself.
+   */
+  public JsonRepresentationWriter(boolean recycling) {
+    this.recycling = recycling;
+  }
+
   public void write(ReadableRepresentation representation, Set<URI> flags, Writer writer) {
+    write(representation, flags, RenderProjection.FULL, writer);
+  }
+
+  /**
+   * Write only the parts of the representation selected by the given projection.
+   */
+  public void write(ReadableRepresentation representation, Set<URI> flags, RenderProjection projection, Writer writer) {
+    Object event = HalFlightRecorder.WRITE.begin();
+    CountingWriter counter = event != null ? new CountingWriter(writer) : null;
     try {
-      JsonGenerator g = getJsonGenerator(flags, writer);
-      g.writeStartObject();
-      renderJson(flags, g, representation, false);
-      g.writeEndObject();
-      g.close();
+      write(representation, flags, projection, getJsonGenerator(flags, counter != null ? counter : writer));
     } catch (IOException e) {
       throw new RepresentationException(e);
     }
+    if (counter != null) {
+      HalFlightRecorder.WRITE.commit(event, counter.count, representation, flags, null);
+    }
+  }
+
+  /**
+   * Write the representation as UTF-8 encoded bytes, avoiding an intermediate character buffer.
+   */
+  public void write(ReadableRepresentation representation, Set<URI> flags, OutputStream outputStream) {
+    Object event = HalFlightRecorder.WRITE.begin();
+    CountingOutputStream counter = event != null ? new CountingOutputStream(outputStream) : null;
+    try {
+      write(representation, flags, RenderProjection.FULL,
+            getJsonGenerator(flags, counter != null ? counter : outputStream));
+    } catch (IOException e) {
+      throw new RepresentationException(e);
+    }
+    if (counter != null) {
+      HalFlightRecorder.WRITE.commit(event, counter.getCount(), representation, flags, null);
+    }
+  }
+
+  /**
+   * Write the representation as UTF-8 encoded bytes, returning the hash of everything written.
+   *
+   * Combined with {@link #CANONICAL} the hash is stable for equal representations, and can be used as a strong
+   * ETag without a second pass over the output.
+   */
+  public HashCode writeHashed(ReadableRepresentation representation, Set<URI> flags, OutputStream outputStream,
+                              HashFunction hashFunction) {
+    HashingOutputStream hashingOutputStream = new HashingOutputStream(hashFunction, outputStream);
+    write(representation, flags, hashingOutputStream);
+    return hashingOutputStream.hash();
+  }
+
+  public String writeToString(ReadableRepresentation representation, Set<URI> flags) {
+    return writeToString(representation, flags, RenderProjection.FULL);
+  }
+
+  public String writeToString(ReadableRepresentation representation, Set<URI> flags, RenderProjection projection) {
+    if (recycling) {
+      RecyclableStringWriter buffer = take(BUFFERS, RecyclableStringWriter::new);
+      try {
+        write(representation, flags, projection, buffer);
+        return buffer.toString();
+      } finally {
+        buffer.reset();
+        BUFFERS.set(buffer);
+      }
+    } else {
+      StringWriter writer = new StringWriter();
+      write(representation, flags, projection, writer);
+      return writer.toString();
+    }
+  }
+
+  private void write(ReadableRepresentation representation, Set<URI> flags, RenderProjection projection, JsonGenerator g)
+      throws IOException {
+    g.writeStartObject();
+    renderJson(flags, g, representation, false, projection);
+    g.writeEndObject();
+    g.close();
+    if (recycling && g.getPrettyPrinter() instanceof DefaultPrettyPrinter) {
+      // Only a completely written document leaves the pretty printer unindented, failed writes drop it
+      PRETTY_PRINTERS.set((DefaultPrettyPrinter) g.getPrettyPrinter());
+    }
+  }
+
+  private static <T> T take(ThreadLocal<T> idle, Supplier<T> factory) {
+    T value = idle.get();
+    if (value == null) {
+      return factory.get();
+    }
+    idle.set(null);
+    return value;
   }
 
   protected JsonGenerator getJsonGenerator(Set<URI> flags, Writer writer)
       throws IOException {
-    JsonGenerator g = getJsonFactory(flags).createJsonGenerator(writer);
+    return configure(getJsonFactory(flags).createGenerator(writer), flags);
+  }
+
+  JsonGenerator getJsonGenerator(Set<URI> flags, OutputStream outputStream)
+      throws IOException {
+    return configure(getJsonFactory(flags).createGenerator(outputStream, JsonEncoding.UTF8), flags);
+  }
+
+  private JsonGenerator configure(JsonGenerator g, Set<URI> flags) {
     if (flags.contains(RepresentationFactory.PRETTY_PRINT)) {
-      g.setPrettyPrinter(new DefaultPrettyPrinter());
+      g.setPrettyPrinter(recycling ? take(PRETTY_PRINTERS, DefaultPrettyPrinter::new) : new DefaultPrettyPrinter());
     }
     return g;
   }
 
   protected JsonFactory getJsonFactory(Set<URI> flags) {
+    if (flags.contains(CANONICAL)) {
+      return flags.contains(RepresentationFactory.STRIP_NULLS) ? STRIP_NULLS_CANONICAL_JSON_FACTORY : CANONICAL_JSON_FACTORY;
+    }
+    return flags.contains(RepresentationFactory.STRIP_NULLS) ? STRIP_NULLS_JSON_FACTORY : JSON_FACTORY;
+  }
+
+  private static JsonFactory createJsonFactory(boolean stripNulls, boolean canonical) {
     JsonFactory f = new JsonFactory();
     ObjectMapper codec = new ObjectMapper();
-    if (flags.contains(RepresentationFactory.STRIP_NULLS)) {
+    if (stripNulls) {
       codec.setSerializationInclusion(JsonInclude.Include.NON_NULL);
     }
     codec.configure(SerializationFeature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED, false);
+    if (canonical) {
+      codec.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+      codec.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+      codec.registerModule(new SimpleModule("CanonicalNumbers")
+                               .addSerializer(Double.class, CanonicalNumberSerializer.INSTANCE)
+                               .addSerializer(Double.TYPE, CanonicalNumberSerializer.INSTANCE)
+                               .addSerializer(Float.class, CanonicalNumberSerializer.INSTANCE)
+                               .addSerializer(Float.TYPE, CanonicalNumberSerializer.INSTANCE)
+                               .addSerializer(BigDecimal.class, CanonicalNumberSerializer.INSTANCE)
+                               .addSerializer(BigInteger.class, CanonicalNumberSerializer.INSTANCE));
+    }
     f.setCodec(codec);
     f.enable(JsonGenerator.Feature.QUOTE_FIELD_NAMES);
     return f;
@@ -90,30 +261,78 @@ public class JsonRepresentationWriter
         (rel, key, comparator) -> false));
   }
 
-  private void renderJson(Set<URI> flags, JsonGenerator g, ReadableRepresentation representation, boolean embedded)
+  void renderJson(Set<URI> flags, JsonGenerator g, ReadableRepresentation representation, boolean embedded)
       throws IOException {
+    renderJson(flags, g, representation, embedded, RenderProjection.FULL);
+  }
 
-    if (!representation.getCanonicalLinks().isEmpty() || (!embedded && !representation.getNamespaces().isEmpty())) {
+  void renderJson(Set<URI> flags, JsonGenerator g, ReadableRepresentation representation, boolean embedded,
+                  RenderProjection projection)
+      throws IOException {
+
+    // Lazily read documents render their structure from a property-less view, and copy their property values verbatim
+    JsonSliceRepresentation slices = slicesOf(flags, representation);
+    ReadableRepresentation structure = slices != null ? slices.structure() : representation;
+
+    renderLinks(flags, g, structure, embedded, List.empty());
+    renderProperties(flags, g, representation, projection);
+
+    if (projection.rendersEmbedded() && !structure.getResources().isEmpty()) {
+      // Projections can leave out every rel, and an empty _embedded object is not written
+      java.util.List<EmbeddedRel> embeddedRels = embeddedRels(flags, structure, projection);
+      if (!embeddedRels.isEmpty()) {
+        g.writeObjectFieldStart(EMBEDDED);
+        renderEmbedded(flags, g, embeddedRels);
+        g.writeEndObject();
+      }
+    }
+  }
+
+  private JsonSliceRepresentation slicesOf(Set<URI> flags, ReadableRepresentation representation) {
+    return flags.contains(RepresentationFactory.PRETTY_PRINT) || flags.contains(CANONICAL)
+           ? null
+           : JsonSliceRepresentation.slicesOf(representation);
+  }
+
+  /**
+   * Write the {@code _links} of the representation, along with any additional CURIEs.
+   */
+  void renderLinks(Set<URI> flags, JsonGenerator g, ReadableRepresentation structure, boolean embedded,
+                   List<Link> curies)
+      throws IOException {
+
+    if (!structure.getCanonicalLinks().isEmpty()
+        || (!embedded && (!structure.getNamespaces().isEmpty() || !curies.isEmpty()))) {
       g.writeObjectFieldStart(LINKS);
 
       List<Link> links = List.empty();
 
       // Include namespaces as links when not embedded
       if (!embedded) {
-        links = links.appendAll(representation.getNamespaces()
+        links = links.appendAll(structure.getNamespaces()
                                               .map(ns -> new Link(CURIES, ns._2, ns._1, null, null, null)));
+        links = links.appendAll(curies);
       }
 
       // Add representation links
-      links = links.appendAll(representation.getLinks());
+      links = links.appendAll(structure.getLinks());
+
+      if (flags.contains(CANONICAL)) {
+        links = links.sort(LINK_ORDER);
+      }
 
       // Partition representation links by rel
       Multimap<String, Link> linkMap = Multimaps.index(links, Link::getRel);
 
       for (Map.Entry<String, Collection<Link>> linkEntry : linkMap.asMap().entrySet()) {
 
-        Rel rel = representation.getRels().get(linkEntry.getKey()).get();
-        boolean coalesce = !isCollection(rel) && (isSingleton(rel) || linkEntry.getValue().size() == 1);
+        int size = linkEntry.getValue().size();
+        // CURIEs are always an array, even a single one hoisted into a representation without namespaces
+        boolean coalesce = !CURIES.equals(linkEntry.getKey())
+                           && structure.getRels()
+                                       .get(linkEntry.getKey())
+                                       .map(rel -> !isCollection(rel) && (isSingleton(rel) || size == 1))
+                                       .orElse(size == 1);
 
         if (coalesce) {
           Link link = linkEntry.getValue().iterator().next();
@@ -132,61 +351,157 @@ public class JsonRepresentationWriter
       }
       g.writeEndObject();
     }
+  }
+
+  void renderProperties(Set<URI> flags, JsonGenerator g, ReadableRepresentation representation,
+                        RenderProjection projection)
+      throws IOException {
+    JsonSliceRepresentation slices = slicesOf(flags, representation);
+    if (slices != null) {
+      slices.writeProperties(flags, g, projection);
+    } else {
+      Iterable<Tuple2<String, Option<Object>>> properties = representation.getProperties();
+      for (Tuple2<String, Option<Object>> entry : flags.contains(CANONICAL) ? sortedByKey(properties) : properties) {
+        if (!projection.includesProperty(entry._1)) {
+          continue;
+        }
+        if (entry._2.isDefined()) {
+          writeProperty(g, entry._1, entry._2.get());
+        } else {
+          if (!flags.contains(RepresentationFactory.STRIP_NULLS)) {
+            g.writeNullField(entry._1);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Write the embedded resources of the representation into the currently open {@code _embedded} object.
+   */
+  void renderEmbedded(Set<URI> flags, JsonGenerator g, ReadableRepresentation structure, RenderProjection projection)
+      throws IOException {
+    renderEmbedded(flags, g, embeddedRels(flags, structure, projection));
+  }
 
-    for (Tuple2<String, Option<Object>> entry : representation.getProperties()) {
-      if (entry._2.isDefined()) {
-        g.writeObjectField(entry._1, entry._2.get());
+  private void renderEmbedded(Set<URI> flags, JsonGenerator g, java.util.List<EmbeddedRel> embeddedRels)
+      throws IOException {
+    for (EmbeddedRel embeddedRel : embeddedRels) {
+      if (embeddedRel.coalesce) {
+        g.writeObjectFieldStart(embeddedRel.field);
+        renderEmbeddedJson(flags, g, embeddedRel.rel, embeddedRel.resources.head(), embeddedRel.projection);
+        g.writeEndObject();
       } else {
-        if (!flags.contains(RepresentationFactory.STRIP_NULLS)) {
-          g.writeNullField(entry._1);
+        g.writeArrayFieldStart(embeddedRel.field);
+        for (ReadableRepresentation subRepresentation : embeddedRel.resources) {
+          g.writeStartObject();
+          renderEmbeddedJson(flags, g, embeddedRel.rel, subRepresentation, embeddedRel.projection);
+          g.writeEndObject();
         }
+        g.writeEndArray();
       }
     }
+  }
 
-    if (!representation.getResources().isEmpty()) {
-      g.writeObjectFieldStart(EMBEDDED);
+  /**
+   * The embedded rels of the representation as they are rendered, in rendering order.
+   */
+  java.util.List<EmbeddedRel> embeddedRels(Set<URI> flags, ReadableRepresentation structure,
+                                           RenderProjection projection) {
 
-      javaslang.collection.Map<String, List<? extends ReadableRepresentation>> resourceMap = representation.getResourceMap();
+    javaslang.collection.Map<String, List<? extends ReadableRepresentation>> resourceMap = structure.getResourceMap();
+    java.util.List<EmbeddedRel> embeddedRels = new ArrayList<>();
 
-      for (Tuple2<String, List<? extends ReadableRepresentation>> resourceEntry : resourceMap) {
+    for (Tuple2<String, List<? extends ReadableRepresentation>> resourceEntry
+        : flags.contains(CANONICAL) ? sortedByKey(resourceMap) : resourceMap) {
 
-        Rel rel = representation.getRels().get(resourceEntry._1).get();
+      Rel rel = structure.getRels().get(resourceEntry._1).get();
 
-        boolean coalesce = !isCollection(rel) && (isSingleton(rel) || resourceEntry._2().length() == 1);
+      int maxItems = projection.maxItems(resourceEntry._1);
+      if (maxItems == 0) {
+        continue;
+      }
+      RenderProjection relProjection = projection.forRel(resourceEntry._1);
 
-        if (coalesce) {
-          g.writeObjectFieldStart(resourceEntry._1());
-          ReadableRepresentation subRepresentation = resourceEntry._2().iterator().next();
-          renderJson(flags, g, subRepresentation, true);
-          g.writeEndObject();
-        } else {
+      boolean coalesce = !isCollection(rel) && (isSingleton(rel) || resourceEntry._2().length() == 1);
 
-          final Comparator<ReadableRepresentation> repComparator = Rels.getComparator(rel)
-                                                                       .orElse(Rel.naturalComparator);
+      if (coalesce) {
+        embeddedRels.add(new EmbeddedRel(resourceEntry._1, resourceEntry._1, true, resourceEntry._2().take(1),
+                                         relProjection));
+      } else {
 
-          final List<? extends ReadableRepresentation> values = isSingleton(rel)
-                                                                ? resourceEntry._2()
-                                                                : resourceEntry._2().sort(repComparator);
+        final Comparator<ReadableRepresentation> repComparator = Rels.getComparator(rel)
+                                                                     .orElse(Rel.naturalComparator);
 
-          final String collectionRel = isSingleton(rel) || flags.contains(RepresentationFactory.SILENT_SORTING)
-                                       ? rel.rel()
-                                       : rel.fullRel();
+        final List<? extends ReadableRepresentation> values = isSingleton(rel)
+                                                              ? resourceEntry._2()
+                                                              : resourceEntry._2().sort(repComparator);
 
-          g.writeArrayFieldStart(collectionRel);
+        // Sorted before capping, so a capped collection renders the first items of the full one
+        final List<? extends ReadableRepresentation> rendered = values.length() > maxItems
+                                                                ? values.take(maxItems)
+                                                                : values;
 
-          for (ReadableRepresentation subRepresentation : values) {
-            g.writeStartObject();
-            renderJson(flags, g, subRepresentation, true);
-            g.writeEndObject();
-          }
-          g.writeEndArray();
-        }
+        final String collectionRel = isSingleton(rel) || flags.contains(RepresentationFactory.SILENT_SORTING)
+                                     ? rel.rel()
+                                     : rel.fullRel();
+
+        embeddedRels.add(new EmbeddedRel(resourceEntry._1, collectionRel, false, rendered, relProjection));
       }
-      g.writeEndObject();
     }
+    return embeddedRels;
   }
 
-  private void writeJsonLinkContent(JsonGenerator g, Link link)
+  void renderEmbeddedJson(Set<URI> flags, JsonGenerator g, String rel, ReadableRepresentation representation,
+                                  RenderProjection projection)
+      throws IOException {
+    Object event = HalFlightRecorder.EMBEDDED.begin();
+    if (projection.getEmbedded() == RenderProjection.Embedded.SELF_LINKS) {
+      Option<Link> selfLink = representation.getResourceLink();
+      if (selfLink.isDefined()) {
+        g.writeObjectFieldStart(LINKS);
+        g.writeObjectFieldStart(selfLink.get().getRel());
+        writeJsonLinkContent(g, selfLink.get());
+        g.writeEndObject();
+        g.writeEndObject();
+      }
+    } else {
+      renderJson(flags, g, representation, true, projection);
+    }
+    HalFlightRecorder.EMBEDDED.commit(event, -1, representation, flags, rel);
+  }
+
+  /**
+   * Raw JSON, streaming values and JSON trees are written straight into the generator, everything else goes through
+   * the codec.
+   */
+  private static void writeProperty(JsonGenerator g, String name, Object value)
+      throws IOException {
+    g.writeFieldName(name);
+    writePropertyValue(g, value);
+  }
+
+  static void writePropertyValue(JsonGenerator g, Object value)
+      throws IOException {
+    if (value instanceof RawJson) {
+      ((RawJson) value).writeTo(g);
+    } else if (value instanceof StreamingValue) {
+      ((StreamingValue) value).writeTo(g);
+    } else if (value instanceof TreeNode) {
+      g.writeTree((TreeNode) value);
+    } else {
+      g.writeObject(value);
+    }
+  }
+
+  private static <T> Iterable<Tuple2<String, T>> sortedByKey(Iterable<Tuple2<String, T>> entries) {
+    java.util.List<Tuple2<String, T>> sorted = new ArrayList<>();
+    entries.forEach(sorted::add);
+    sorted.sort(Comparator.comparing(entry -> entry._1));
+    return sorted;
+  }
+
+  static void writeJsonLinkContent(JsonGenerator g, Link link)
       throws IOException {
     g.writeStringField(HREF, link.getHref());
     if (!Strings.isNullOrEmpty(link.getName())) {
@@ -205,4 +520,132 @@ public class JsonRepresentationWriter
       g.writeBooleanField(TEMPLATED, true);
     }
   }
+
+  /**
+   * An embedded rel as rendered, under its field name, either as a single object or an array of resources.
+   */
+  static final class EmbeddedRel {
+    final String rel;
+    final String field;
+    final boolean coalesce;
+    final List<? extends ReadableRepresentation> resources;
+    final RenderProjection projection;
+
+    EmbeddedRel(String rel, String field, boolean coalesce, List<? extends ReadableRepresentation> resources,
+                RenderProjection projection) {
+      this.rel = rel;
+      this.field = field;
+      this.coalesce = coalesce;
+      this.resources = resources;
+      this.projection = projection;
+    }
+  }
+
+  /**
+   * Writes decimal numbers in plain notation without trailing zeros, so 1.50, 1.5f and new BigDecimal("15E-1") all
+   * render as 1.5.
+   */
+  private static final class CanonicalNumberSerializer
+      extends StdSerializer<Number> {
+
+    private static final CanonicalNumberSerializer INSTANCE = new CanonicalNumberSerializer();
+
+    private CanonicalNumberSerializer() {
+      super(Number.class);
+    }
+
+    @Override
+    public void serialize(Number value, JsonGenerator g, SerializerProvider provider)
+        throws IOException {
+      if ((value instanceof Double || value instanceof Float) && !Double.isFinite(value.doubleValue())) {
+        g.writeNumber(value.doubleValue());
+        return;
+      }
+
+      BigDecimal decimal = value instanceof BigDecimal
+                           ? (BigDecimal) value
+                           : value instanceof BigInteger ? new BigDecimal((BigInteger) value) : new BigDecimal(value.toString());
+
+      g.writeNumber(decimal.signum() == 0 ? "0" : decimal.stripTrailingZeros().toPlainString());
+    }
+  }
+
+  /**
+   * Counts the characters written, for the size of write events.
+   */
+  private static final class CountingWriter
+      extends FilterWriter {
+
+    private long count;
+
+    CountingWriter(Writer out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int c)
+        throws IOException {
+      out.write(c);
+      count++;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len)
+        throws IOException {
+      out.write(cbuf, off, len);
+      count += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len)
+        throws IOException {
+      out.write(str, off, len);
+      count += len;
+    }
+  }
+
+  /**
+   * A StringWriter replacement that keeps its buffer between writes, without StringBuffer synchronization.
+   */
+  private static final class RecyclableStringWriter
+      extends Writer {
+
+    private StringBuilder buffer = new StringBuilder(1024);
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+      buffer.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+      buffer.append(str, off, off + len);
+    }
+
+    @Override
+    public void write(int c) {
+      buffer.append((char) c);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    void reset() {
+      if (buffer.capacity() > MAX_RECYCLED_BUFFER_SIZE) {
+        buffer = new StringBuilder(1024);
+      } else {
+        buffer.setLength(0);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return buffer.toString();
+    }
+  }
 }
@@ -0,0 +1,329 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import com.theoryinpractise.halbuilder.impl.api.Support;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+import javaslang.collection.Set;
+import javaslang.control.Option;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+
+/**
+ * A ReadableRepresentation backed by the raw UTF-8 bytes of a document and an index of its top level fields.
+ *
+ * {@code getValue(name)} and {@code getContent()} are answered from the source bytes, decoding only the requested
+ * field. Every other call is delegated to a PersistentRepresentation built on first use, so the lazy view behaves
+ * exactly like the result of {@link JsonRepresentationReader#read(java.io.Reader)}.
+ *
+ * The bytes are read through a {@link Source}, so they can stay in a buffer outside the heap, and the index is a
+ * {@link Layout} built once per document and shared by all of its views.
+ */
+final class JsonSliceRepresentation
+    implements InvocationHandler {
+
+  private static final Object[] NO_ARGS = new Object[0];
+
+  private final JsonRepresentationReader reader;
+  private final Source source;
+  private final Layout layout;
+
+  private volatile PersistentRepresentation structure;
+  private volatile PersistentRepresentation representation;
+
+  private JsonSliceRepresentation(JsonRepresentationReader reader, Source source, Layout layout) {
+    this.reader = reader;
+    this.source = source;
+    this.layout = layout;
+  }
+
+  static ReadableRepresentation newRepresentation(JsonRepresentationReader reader, byte[] source)
+      throws IOException {
+    return newRepresentation(reader, new HeapSource(source), index(source));
+  }
+
+  static ReadableRepresentation newRepresentation(JsonRepresentationReader reader, Source source, Layout layout) {
+    JsonSliceRepresentation handler = new JsonSliceRepresentation(reader, source, layout);
+    return (ReadableRepresentation) Proxy.newProxyInstance(JsonSliceRepresentation.class.getClassLoader(),
+        new Class<?>[]{ReadableRepresentation.class}, handler);
+  }
+
+  /**
+   * Index the top level fields of a document.
+   */
+  static Layout index(byte[] source)
+      throws IOException {
+    List<Slice> slices = new ArrayList<>();
+    try (JsonParser parser = JsonRepresentationReader.MAPPER.getFactory().createParser(source)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new RepresentationException("Expected a JSON object at " + parser.getCurrentLocation());
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        int fieldStart = (int) parser.getTokenLocation().getByteOffset();
+        JsonToken token = parser.nextToken();
+        if (token.isStructStart()) {
+          parser.skipChildren();
+        } else if (token == JsonToken.VALUE_STRING) {
+          // Forces the parser past the closing quote without creating the String
+          parser.getTextLength();
+        }
+        int end = (int) parser.getCurrentLocation().getByteOffset();
+        int start = valueStart(source, fieldStart);
+        slices.add(new Slice(name, start, end - start, token == JsonToken.VALUE_NULL));
+      }
+    }
+    return new Layout(source.length, slices);
+  }
+
+  /**
+   * The slices behind a representation returned by {@link #newRepresentation}, or null for any other representation.
+   */
+  static JsonSliceRepresentation slicesOf(ReadableRepresentation representation) {
+    if (Proxy.isProxyClass(representation.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(representation);
+      if (handler instanceof JsonSliceRepresentation) {
+        return (JsonSliceRepresentation) handler;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Skip the field name token that Jackson reports the location of, landing on the first byte of its value.
+   */
+  private static int valueStart(byte[] source, int offset) {
+    int i = offset;
+    while (source[i] != '"') {
+      i++;
+    }
+    i++;
+    while (source[i] != '"') {
+      i += source[i] == '\\' ? 2 : 1;
+    }
+    i++;
+    while (source[i] != ':') {
+      i++;
+    }
+    i++;
+    while (source[i] == ' ' || source[i] == '\t' || source[i] == '\r' || source[i] == '\n') {
+      i++;
+    }
+    return i;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args)
+      throws Throwable {
+    if ("getValue".equals(method.getName()) && args != null && args.length == 1 && args[0] instanceof String) {
+      return getValue((String) args[0]);
+    } else if ("getContent".equals(method.getName()) && args == null) {
+      return Option.of(source.read(0, layout.length, JsonSliceRepresentation::text));
+    } else if ("equals".equals(method.getName()) && args != null && args.length == 1
+               && method.getParameterTypes()[0] == Object.class) {
+      return proxy == args[0] || isSameDocument(args[0]);
+    } else if ("hashCode".equals(method.getName()) && args == null) {
+      return Arrays.hashCode(bytes());
+    }
+
+    try {
+      return method.invoke(representation(), args != null ? args : NO_ARGS);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Views are equal to other views of the same bytes, and unlike PersistentRepresentations, never to a
+   * representation of another kind, which keeps equality symmetric.
+   */
+  private boolean isSameDocument(Object other)
+      throws IOException {
+    JsonSliceRepresentation slices = other instanceof ReadableRepresentation
+                                     ? slicesOf((ReadableRepresentation) other)
+                                     : null;
+    return slices != null && Arrays.equals(bytes(), slices.bytes());
+  }
+
+  private byte[] bytes()
+      throws IOException {
+    return source.read(0, layout.length, Arrays::copyOfRange);
+  }
+
+  Option<Object> getValue(String name) {
+    Slice slice = layout.index.get(name);
+    if (slice == null) {
+      return Option.none();
+    }
+    try {
+      Object event = HalFlightRecorder.PROPERTY.begin();
+      Object value = JsonRepresentationReader.propertyValue(decode(slice));
+      HalFlightRecorder.PROPERTY.commit(event, slice.length, null, null, name);
+      return Option.of(value);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * The links, namespaces and embedded resources of the document, without any of its properties.
+   */
+  ReadableRepresentation structure()
+      throws IOException {
+    if (structure == null) {
+      ObjectNode node = JsonRepresentationReader.MAPPER.createObjectNode();
+      if (layout.links != null) {
+        node.set(LINKS, decode(layout.links));
+      }
+      if (layout.embedded != null) {
+        node.set(EMBEDDED, decode(layout.embedded));
+      }
+      structure = reader.readResource(node);
+    }
+    return structure;
+  }
+
+  private PersistentRepresentation representation()
+      throws IOException {
+    if (representation == null) {
+      representation = source.read(0, layout.length, (bytes, offset, length) -> reader.readResource(
+          JsonRepresentationReader.MAPPER.readValue(bytes, offset, length, JsonNode.class))
+          .withContent(text(bytes, offset, length)));
+    }
+    return representation;
+  }
+
+  /**
+   * Write the properties, in source order, copying the original text of each value.
+   */
+  void writeProperties(Set<URI> flags, JsonGenerator g, RenderProjection projection)
+      throws IOException {
+    for (Slice slice : layout.properties) {
+      if (!projection.includesProperty(slice.name)) {
+        continue;
+      }
+      if (slice.isNull) {
+        if (!flags.contains(RepresentationFactory.STRIP_NULLS)) {
+          g.writeNullField(slice.name);
+        }
+      } else {
+        g.writeFieldName(slice.name);
+        g.writeRawValue(source.read(slice.offset, slice.length, JsonSliceRepresentation::text));
+      }
+    }
+  }
+
+  private JsonNode decode(Slice slice)
+      throws IOException {
+    return source.read(slice.offset, slice.length, (bytes, offset, length) ->
+        JsonRepresentationReader.MAPPER.readValue(bytes, offset, length, JsonNode.class));
+  }
+
+  private static String text(byte[] bytes, int offset, int length) {
+    return new String(bytes, offset, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a range of the document's bytes.
+   */
+  @FunctionalInterface
+  interface Range<T> {
+    T read(byte[] bytes, int offset, int length)
+        throws IOException;
+  }
+
+  /**
+   * Where the bytes of a document are read from, for as long as any of its views is in use.
+   */
+  interface Source {
+    /**
+     * Pass the given range of the document to the reader, as a range of some byte array.
+     */
+    <T> T read(int offset, int length, Range<T> range)
+        throws IOException;
+  }
+
+  private static final class HeapSource
+      implements Source {
+
+    private final byte[] bytes;
+
+    HeapSource(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public <T> T read(int offset, int length, Range<T> range)
+        throws IOException {
+      return range.read(bytes, offset, length);
+    }
+  }
+
+  /**
+   * The top level fields of a document, indexed once and shared by every view of it.
+   */
+  static final class Layout {
+    final int length;
+    final Map<String, Slice> index;
+    final Slice[] properties;
+    final Slice links;
+    final Slice embedded;
+
+    Layout(int length, List<Slice> slices) {
+      this.length = length;
+      this.index = new HashMap<>(slices.size() * 2);
+
+      Slice linksSlice = null;
+      Slice embeddedSlice = null;
+      List<Slice> propertySlices = new ArrayList<>(slices.size());
+      for (Slice slice : slices) {
+        if (LINKS.equals(slice.name)) {
+          linksSlice = slice;
+        } else if (EMBEDDED.equals(slice.name)) {
+          embeddedSlice = slice;
+        } else if (!Support.RESERVED_JSON_PROPERTIES.contains(slice.name)) {
+          index.put(slice.name, slice);
+          propertySlices.add(slice);
+        }
+      }
+
+      this.properties = propertySlices.toArray(new Slice[propertySlices.size()]);
+      this.links = linksSlice;
+      this.embedded = embeddedSlice;
+    }
+  }
+
+  private static final class Slice {
+    private final String name;
+    private final int offset;
+    private final int length;
+    private final boolean isNull;
+
+    Slice(String name, int offset, int length, boolean isNull) {
+      this.name = name;
+      this.offset = offset;
+      this.length = length;
+      this.isNull = isNull;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.base.Strings;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import javaslang.control.Option;
+
+import java.util.function.Function;
+
+/**
+ * Formats the links of a representation as an RFC 8288 {@code Link} header value, without rendering any JSON.
+ *
+ * Templated links are left out, as a header link target has to be a URI reference.
+ */
+public final class LinkHeaders {
+
+  private LinkHeaders() {
+  }
+
+  /**
+   * Format the links of the representation, expanding CURIE rels against its namespaces into extension relation
+   * types.
+   */
+  public static String format(ReadableRepresentation representation) {
+    return format(representation.getLinks(), rel -> expandRel(representation, rel));
+  }
+
+  /**
+   * Format the given links, using their rels as is.
+   */
+  public static String format(Iterable<Link> links) {
+    return format(links, Function.identity());
+  }
+
+  private static String format(Iterable<Link> links, Function<String, String> rels) {
+    StringBuilder header = new StringBuilder();
+    for (Link link : links) {
+      if (link.hasTemplate()) {
+        continue;
+      }
+      if (header.length() > 0) {
+        header.append(", ");
+      }
+      header.append('<').append(link.getHref()).append('>');
+      appendParameter(header, "rel", rels.apply(link.getRel()));
+      appendParameter(header, "title", link.getTitle());
+      appendParameter(header, "hreflang", link.getHreflang());
+      appendParameter(header, "name", link.getName());
+      appendParameter(header, "profile", link.getProfile());
+    }
+    return header.toString();
+  }
+
+  private static void appendParameter(StringBuilder header, String name, String value) {
+    if (Strings.isNullOrEmpty(value)) {
+      return;
+    }
+    header.append("; ").append(name).append("=\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        header.append('\\');
+      }
+      header.append(c);
+    }
+    header.append('"');
+  }
+
+  private static String expandRel(ReadableRepresentation representation, String rel) {
+    int separator = rel.indexOf(':');
+    if (separator <= 0) {
+      return rel;
+    }
+    Option<String> namespace = representation.getNamespaces().get(rel.substring(0, separator));
+    return namespace.isDefined() ? namespace.get().replace("{rel}", rel.substring(separator + 1)) : rel;
+  }
+
+}
@@ -0,0 +1,213 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.io.ByteStreams;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import javaslang.collection.HashSet;
+import javaslang.control.Option;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps representations as compact UTF-8 HAL+JSON in a fixed size buffer outside the heap, such as a direct or
+ * memory mapped buffer, so large numbers of representations can be held without each one being retained on the heap.
+ *
+ * The heap holds an index entry per key, with the offsets of the document's top level fields found once when it is
+ * stored. {@link #get(String)} returns a view over the buffer that copies only the bytes of a value as it is
+ * requested, and the whole document only when the view is used as a full representation. A view reads the entry it
+ * was returned for and throws a {@link RepresentationException} once that entry is removed, replaced or evicted.
+ * Entries are written one after another around the buffer, evicting the oldest entries when it wraps, and documents
+ * larger than the whole buffer are not stored at all.
+ *
+ * Stores are thread safe.
+ */
+public class OffHeapRepresentationStore {
+
+  private final JsonRepresentationReader reader;
+  private final JsonRepresentationWriter writer;
+  private final ByteBuffer buffer;
+
+  private final Map<String, Entry> index = new HashMap<>();
+  private final Deque<Entry> entries = new ArrayDeque<>();
+  private int position;
+  private long usedBytes;
+  private long evictions;
+
+  public OffHeapRepresentationStore(JsonRepresentationReader reader, ByteBuffer buffer) {
+    this.reader = reader;
+    this.writer = new JsonRepresentationWriter();
+    this.buffer = buffer.duplicate();
+    this.buffer.clear();
+  }
+
+  /**
+   * A store backed by a newly allocated direct buffer of the given capacity in bytes.
+   */
+  public static OffHeapRepresentationStore allocateDirect(JsonRepresentationReader reader, int capacity) {
+    return new OffHeapRepresentationStore(reader, ByteBuffer.allocateDirect(capacity));
+  }
+
+  /**
+   * Store the representation rendered as compact HAL+JSON, returning false when it is larger than the buffer.
+   */
+  public boolean put(String key, ReadableRepresentation representation) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    writer.write(representation, HashSet.empty(), output);
+    return putJson(key, output.toByteArray());
+  }
+
+  /**
+   * Store an already rendered UTF-8 HAL+JSON document as is, returning false when it is larger than the buffer.
+   */
+  public boolean putJson(String key, byte[] json) {
+    if (json.length > buffer.capacity()) {
+      remove(key);
+      return false;
+    }
+    JsonSliceRepresentation.Layout layout;
+    try {
+      layout = JsonSliceRepresentation.index(json);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+
+    synchronized (this) {
+      remove(key);
+
+      if (position + json.length > buffer.capacity()) {
+        // Evict everything written after the current position before wrapping around
+        evict(buffer.capacity());
+        position = 0;
+      }
+      evict(position + json.length);
+
+      ByteBuffer target = buffer.duplicate();
+      target.position(position);
+      target.put(json);
+
+      Entry entry = new Entry(key, position, json.length, layout);
+      index.put(key, entry);
+      entries.addLast(entry);
+      position += json.length;
+      usedBytes += json.length;
+      return true;
+    }
+  }
+
+  /**
+   * Read a UTF-8 HAL+JSON document into the store, returning a view of the stored representation, or none when it is
+   * larger than the buffer. The document is indexed before it is stored, so a malformed document is never stored.
+   */
+  public Option<ReadableRepresentation> read(String key, InputStream inputStream) {
+    byte[] json;
+    try {
+      json = ByteStreams.toByteArray(inputStream);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+    return putJson(key, json) ? get(key) : Option.none();
+  }
+
+  public synchronized Option<ReadableRepresentation> get(String key) {
+    Entry entry = index.get(key);
+    if (entry == null) {
+      return Option.none();
+    }
+    return Option.of(JsonSliceRepresentation.newRepresentation(reader, new StoredSource(entry), entry.layout));
+  }
+
+  public synchronized boolean remove(String key) {
+    Entry entry = index.remove(key);
+    if (entry == null) {
+      return false;
+    }
+    entry.removed = true;
+    usedBytes -= entry.length;
+    return true;
+  }
+
+  public synchronized int size() {
+    return index.size();
+  }
+
+  public synchronized long evictionCount() {
+    return evictions;
+  }
+
+  /**
+   * Bytes of the buffer in use by stored documents.
+   */
+  public synchronized long usedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * Drop the oldest entries, in insertion order, until none of them overlap the buffer below the given limit.
+   */
+  private void evict(int limit) {
+    while (!entries.isEmpty()) {
+      Entry oldest = entries.peekFirst();
+      if (!oldest.removed && (oldest.offset >= limit || oldest.offset + oldest.length <= position)) {
+        return;
+      }
+      entries.removeFirst();
+      if (!oldest.removed) {
+        oldest.removed = true;
+        index.remove(oldest.key);
+        usedBytes -= oldest.length;
+        evictions++;
+      }
+    }
+  }
+
+  private static final class Entry {
+    final String key;
+    final int offset;
+    final int length;
+    final JsonSliceRepresentation.Layout layout;
+    boolean removed;
+
+    Entry(String key, int offset, int length, JsonSliceRepresentation.Layout layout) {
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+      this.layout = layout;
+    }
+  }
+
+  /**
+   * Copies ranges of a stored document out of the buffer while it is still stored.
+   */
+  private final class StoredSource
+      implements JsonSliceRepresentation.Source {
+
+    private final Entry entry;
+
+    StoredSource(Entry entry) {
+      this.entry = entry;
+    }
+
+    @Override
+    public <T> T read(int offset, int length, JsonSliceRepresentation.Range<T> range)
+        throws IOException {
+      byte[] bytes = new byte[length];
+      synchronized (OffHeapRepresentationStore.this) {
+        if (entry.removed) {
+          throw new RepresentationException("The stored representation of " + entry.key + " is no longer in the store");
+        }
+        ByteBuffer source = buffer.duplicate();
+        source.position(entry.offset + offset);
+        source.get(bytes);
+      }
+      return range.read(bytes, 0, length);
+    }
+  }
+
+}
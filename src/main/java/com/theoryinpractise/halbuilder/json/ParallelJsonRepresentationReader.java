@@ -0,0 +1,303 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+
+/**
+ * A JsonRepresentationReader which parses the items of large top level {@code _embedded} arrays in parallel.
+ *
+ * The document is first scanned once to find where each embedded item starts and ends, keeping every other top
+ * level field as a tree. The items are then parsed on a ForkJoinPool straight from their range of the original
+ * characters or UTF-8 bytes, and added back to the representation in document order, so the result is the same as
+ * reading the document serially. Documents shorter than the given number of characters, or bytes, are read serially.
+ */
+public class ParallelJsonRepresentationReader
+    extends JsonRepresentationReader {
+
+  private static final JsonFactory JSON_FACTORY = JsonRepresentationReader.MAPPER.getFactory();
+  private static final ObjectReader NODE_READER = JsonRepresentationReader.MAPPER.readerFor(JsonNode.class);
+
+  /**
+   * Items parsed by a single task, so tasks stay large enough to be worth forking.
+   */
+  private static final int ITEMS_PER_TASK = 16;
+
+  private final ForkJoinPool pool;
+  private final int minimumCharacters;
+
+  public ParallelJsonRepresentationReader(AbstractRepresentationFactory representationFactory) {
+    this(representationFactory, false, ForkJoinPool.commonPool(), 256 * 1024);
+  }
+
+  public ParallelJsonRepresentationReader(AbstractRepresentationFactory representationFactory,
+                                          boolean deduplicateEmbeds, ForkJoinPool pool, int minimumCharacters) {
+    super(representationFactory, deduplicateEmbeds);
+    this.pool = pool;
+    this.minimumCharacters = minimumCharacters;
+  }
+
+  @Override
+  public PersistentRepresentation read(Reader reader) {
+    try {
+      return read(CharStreams.toString(reader));
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public PersistentRepresentation read(InputStream inputStream) {
+    try {
+      byte[] source = ByteStreams.toByteArray(inputStream);
+      return read(source, 0, source.length);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * UTF-8 documents are scanned and parsed as bytes, UTF-16 and UTF-32 documents are decoded first.
+   */
+  @Override
+  public PersistentRepresentation read(byte[] source, int offset, int length) {
+    if (length < minimumCharacters) {
+      return super.read(source, offset, length);
+    }
+    try {
+      Document document = Document.of(source, offset, length);
+      return read(document != null ? document : new Document(decode(source, offset, length).toCharArray()), length);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  PersistentRepresentation read(String source) {
+    return source.length() < minimumCharacters
+           ? super.read(source)
+           : read(new Document(source.toCharArray()), source.length()).withContent(source);
+  }
+
+  private PersistentRepresentation read(Document document, int size) {
+    try {
+      Object event = HalFlightRecorder.READ.begin();
+
+      ObjectNode rootNode = JsonRepresentationReader.MAPPER.createObjectNode();
+      Map<String, Object> embedded = scan(document, rootNode);
+
+      List<Item> items = new ArrayList<>();
+      for (Object value : embedded.values()) {
+        if (value instanceof Item[]) {
+          for (Item item : (Item[]) value) {
+            items.add(item);
+          }
+        }
+      }
+
+      Map<JsonNode, PersistentRepresentation> embeds = deduplicateEmbeds ? new ConcurrentHashMap<>() : null;
+      pool.invoke(new ReadItems(document, items, 0, items.size(), embeds));
+
+      PersistentRepresentation representation = readResource(rootNode, embeds);
+      for (Map.Entry<String, Object> entry : embedded.entrySet()) {
+        if (entry.getValue() instanceof Item[]) {
+          for (Item item : (Item[]) entry.getValue()) {
+            representation = representation.withRepresentation(entry.getKey(), item.representation);
+          }
+        } else {
+          representation = representation.withRepresentation(entry.getKey(),
+                                                             readEmbedded((JsonNode) entry.getValue(), embeds));
+        }
+      }
+
+      HalFlightRecorder.READ.commit(event, size, representation, null, null);
+      return representation;
+
+    } catch (Exception e) {
+      throw e instanceof RepresentationException
+            ? (RepresentationException) e
+            : new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Copy every top level field except {@code _embedded} into the root node, returning the embedded rels in document
+   * order, each mapped to either the bounds of its array items or the tree of its single resource.
+   */
+  private static Map<String, Object> scan(Document document, ObjectNode rootNode)
+      throws IOException {
+    Map<String, Object> embedded = new LinkedHashMap<>();
+    try (JsonParser p = document.createParser(document.offset, document.offset + document.length)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new RepresentationException("Expected a JSON object at " + p.getCurrentLocation());
+      }
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String name = p.getCurrentName();
+        JsonToken token = p.nextToken();
+        if (EMBEDDED.equals(name) && token == JsonToken.START_OBJECT) {
+          scanEmbedded(document, p, embedded);
+        } else {
+          rootNode.set(name, p.readValueAsTree());
+        }
+      }
+      if (p.nextToken() != null) {
+        throw new RepresentationException("Unexpected content after the document at " + p.getCurrentLocation());
+      }
+    }
+    return embedded;
+  }
+
+  private static void scanEmbedded(Document document, JsonParser p, Map<String, Object> embedded)
+      throws IOException {
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String rel = p.getCurrentName();
+      if (p.nextToken() == JsonToken.START_ARRAY) {
+        List<Item> items = new ArrayList<>();
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+          if (token == JsonToken.START_OBJECT) {
+            // Token locations can point at the separator before a token, the parser is always just past it
+            int start = document.position(p.getCurrentLocation()) - 1;
+            p.skipChildren();
+            int end = document.position(p.getCurrentLocation());
+            items.add(new Item(start, end, null));
+          } else {
+            items.add(new Item(0, 0, p.readValueAsTree()));
+          }
+        }
+        embedded.put(rel, items.toArray(new Item[items.size()]));
+      } else {
+        embedded.put(rel, p.readValueAsTree());
+      }
+    }
+  }
+
+  /**
+   * The characters or UTF-8 bytes of a document, which can be parsed from any range.
+   */
+  private static final class Document {
+    final char[] chars;
+    final byte[] bytes;
+    final int offset;
+    final int length;
+
+    Document(char[] chars) {
+      this(chars, null, 0, chars.length);
+    }
+
+    private Document(char[] chars, byte[] bytes, int offset, int length) {
+      this.chars = chars;
+      this.bytes = bytes;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    /**
+     * The bytes of a UTF-8 document, or null when Jackson detects another encoding and reads it as characters.
+     */
+    static Document of(byte[] bytes, int offset, int length)
+        throws IOException {
+      // Byte offsets are counted from after a byte order mark
+      if (length >= 3 && (bytes[offset] & 0xFF) == 0xEF && (bytes[offset + 1] & 0xFF) == 0xBB
+          && (bytes[offset + 2] & 0xFF) == 0xBF) {
+        offset += 3;
+        length -= 3;
+      }
+      try (JsonParser p = JSON_FACTORY.createParser(bytes, offset, length)) {
+        return p.getCurrentLocation().getByteOffset() >= 0 ? new Document(null, bytes, offset, length) : null;
+      }
+    }
+
+    JsonParser createParser(int start, int end)
+        throws IOException {
+      return chars != null
+             ? JSON_FACTORY.createParser(chars, start, end - start)
+             : JSON_FACTORY.createParser(bytes, start, end - start);
+    }
+
+    /**
+     * Byte offsets are relative to the start of the parsed range, character offsets to the start of the array.
+     */
+    int position(JsonLocation location) {
+      return chars != null ? (int) location.getCharOffset() : offset + (int) location.getByteOffset();
+    }
+  }
+
+  private static final class Item {
+    final int start;
+    final int end;
+    final JsonNode node;
+    PersistentRepresentation representation;
+
+    Item(int start, int end, JsonNode node) {
+      this.start = start;
+      this.end = end;
+      this.node = node;
+    }
+  }
+
+  private final class ReadItems
+      extends RecursiveAction {
+
+    private final Document document;
+    private final List<Item> items;
+    private final int from;
+    private final int to;
+    private final Map<JsonNode, PersistentRepresentation> embeds;
+
+    ReadItems(Document document, List<Item> items, int from, int to, Map<JsonNode, PersistentRepresentation> embeds) {
+      this.document = document;
+      this.items = items;
+      this.from = from;
+      this.to = to;
+      this.embeds = embeds;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > ITEMS_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ReadItems(document, items, from, middle, embeds),
+                  new ReadItems(document, items, middle, to, embeds));
+        return;
+      }
+      for (int i = from; i < to; i++) {
+        Item item = items.get(i);
+        try {
+          JsonNode node = item.node;
+          if (node == null) {
+            try (JsonParser p = document.createParser(item.start, item.end)) {
+              node = NODE_READER.readTree(p);
+            }
+          }
+          item.representation = readEmbedded(node, embeds);
+        } catch (IOException e) {
+          throw new RepresentationException(e.getMessage(), e);
+        }
+      }
+    }
+  }
+
+}
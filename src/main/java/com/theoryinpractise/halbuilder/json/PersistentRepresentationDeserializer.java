@@ -0,0 +1,37 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+
+import java.io.IOException;
+
+/**
+ * Reads HAL+JSON from the parser supplied by the calling ObjectMapper.
+ *
+ * Unlike {@link JsonRepresentationReader#read(java.io.Reader)} the source document is not retained as the
+ * content of the representation, as the parser may be positioned inside a larger document.
+ */
+public class PersistentRepresentationDeserializer
+    extends StdDeserializer<PersistentRepresentation> {
+
+  private final JsonRepresentationReader reader;
+
+  public PersistentRepresentationDeserializer(AbstractRepresentationFactory representationFactory) {
+    super(PersistentRepresentation.class);
+    this.reader = new JsonRepresentationReader(representationFactory);
+  }
+
+  @Override
+  public PersistentRepresentation deserialize(JsonParser p, DeserializationContext ctxt)
+      throws IOException {
+    JsonNode rootNode = p.getCodec().readTree(p);
+    if (!rootNode.isObject()) {
+      throw ctxt.mappingException(PersistentRepresentation.class);
+    }
+    return reader.readResource(rootNode);
+  }
+}
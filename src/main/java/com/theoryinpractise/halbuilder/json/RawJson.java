@@ -0,0 +1,173 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A property value holding already serialized JSON, which is copied into the output as is.
+ *
+ * The content is not validated, it must be a single well formed JSON value. Raw values are written verbatim even
+ * when rendering with {@link JsonRepresentationWriter#CANONICAL}.
+ */
+public final class RawJson
+    implements JsonSerializable {
+
+  private final SerializableString json;
+
+  private RawJson(SerializableString json) {
+    this.json = json;
+  }
+
+  public static RawJson of(String json) {
+    return new RawJson(new SerializedString(json));
+  }
+
+  /**
+   * Wrap UTF-8 encoded JSON, which byte based generators copy without decoding it. The array is not copied, and
+   * must not be modified afterwards.
+   */
+  public static RawJson of(byte[] utf8) {
+    return new RawJson(new Utf8String(utf8));
+  }
+
+  public void writeTo(JsonGenerator g)
+      throws IOException {
+    g.writeRawValue(json);
+  }
+
+  @Override
+  public void serialize(JsonGenerator g, SerializerProvider serializers)
+      throws IOException {
+    writeTo(g);
+  }
+
+  @Override
+  public void serializeWithType(JsonGenerator g, SerializerProvider serializers, TypeSerializer typeSer)
+      throws IOException {
+    writeTo(g);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof RawJson && json.getValue().equals(((RawJson) o).json.getValue());
+  }
+
+  @Override
+  public int hashCode() {
+    return json.getValue().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return json.getValue();
+  }
+
+  /**
+   * Unquoted access serves the UTF-8 bytes directly, everything else goes through the decoded text.
+   */
+  static final class Utf8String
+      implements SerializableString {
+
+    private final byte[] utf8;
+    private volatile SerializedString text;
+
+    Utf8String(byte[] utf8) {
+      this.utf8 = utf8;
+    }
+
+    private SerializedString text() {
+      if (text == null) {
+        text = new SerializedString(new String(utf8, StandardCharsets.UTF_8));
+      }
+      return text;
+    }
+
+    @Override
+    public String getValue() {
+      return text().getValue();
+    }
+
+    @Override
+    public int charLength() {
+      return text().charLength();
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+      return text().asQuotedChars();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+      return utf8;
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+      return text().asQuotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+      return text().appendQuotedUTF8(buffer, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+      return text().appendQuoted(buffer, offset);
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+      if (offset + utf8.length > buffer.length) {
+        return -1;
+      }
+      System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+      return utf8.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+      return text().appendUnquoted(buffer, offset);
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out)
+        throws IOException {
+      return text().writeQuotedUTF8(out);
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out)
+        throws IOException {
+      out.write(utf8);
+      return utf8.length;
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer)
+        throws IOException {
+      return text().putQuotedUTF8(buffer);
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer)
+        throws IOException {
+      if (utf8.length > buffer.remaining()) {
+        return -1;
+      }
+      buffer.put(utf8);
+      return utf8.length;
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import javaslang.collection.Set;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Renders representations as HAL+JSON into the generator supplied by the calling ObjectMapper.
+ *
+ * Generator level options such as pretty printing belong to the calling mapper, so only the flags that
+ * affect content ({@code STRIP_NULLS}, {@code SILENT_SORTING}) apply here.
+ */
+public class ReadableRepresentationSerializer
+    extends StdSerializer<ReadableRepresentation> {
+
+  private final JsonRepresentationWriter writer = new JsonRepresentationWriter();
+  private final Set<URI> flags;
+
+  public ReadableRepresentationSerializer(Set<URI> flags) {
+    super(ReadableRepresentation.class);
+    this.flags = flags;
+  }
+
+  @Override
+  public void serialize(ReadableRepresentation value, JsonGenerator g, SerializerProvider provider)
+      throws IOException {
+    g.writeStartObject();
+    writer.renderJson(flags, g, value, false);
+    g.writeEndObject();
+  }
+}
@@ -0,0 +1,161 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects which parts of a representation {@link JsonRepresentationWriter} renders.
+ *
+ * Property selections are given per rel path, with {@code ""} being the rendered representation itself and
+ * {@code "ns:user/ns:address"} the addresses embedded in its embedded users. Projections are immutable, every
+ * {@code with} method returns a modified copy.
+ */
+public final class RenderProjection {
+
+  /**
+   * How embedded resources are rendered.
+   */
+  public enum Embedded {
+    /** Leave out {@code _embedded} entirely. */
+    SKIP,
+    /** Render each embedded resource with its self link only. */
+    SELF_LINKS,
+    /** Render each embedded resource completely. */
+    FULL
+  }
+
+  private static final String ROOT = "";
+  private static final char SEPARATOR = '/';
+  private static final int UNLIMITED = -1;
+
+  /**
+   * Render everything, as a plain write does.
+   */
+  public static final RenderProjection FULL = new RenderProjection(ImmutableMap.of(), Embedded.FULL, UNLIMITED,
+                                                                   ImmutableMap.of());
+
+  private static final RenderProjection LINKS_ONLY = FULL.withProperties().withEmbedded(Embedded.SKIP);
+
+  private final ImmutableMap<String, ImmutableSet<String>> properties;
+  private final Embedded embedded;
+  private final int maxDepth;
+  private final ImmutableMap<String, Integer> maxItems;
+
+  private RenderProjection(ImmutableMap<String, ImmutableSet<String>> properties, Embedded embedded, int maxDepth,
+                           ImmutableMap<String, Integer> maxItems) {
+    this.properties = properties;
+    this.embedded = embedded;
+    this.maxDepth = maxDepth;
+    this.maxItems = maxItems;
+  }
+
+  /**
+   * Render only {@code _links}, for discovery documents and HEAD responses.
+   */
+  public static RenderProjection linksOnly() {
+    return LINKS_ONLY;
+  }
+
+  /**
+   * Render only the named properties, alongside the links.
+   */
+  public RenderProjection withProperties(String... names) {
+    return withPropertiesAt(ROOT, names);
+  }
+
+  /**
+   * Render only the named properties of the resources embedded at the given rel path.
+   */
+  public RenderProjection withPropertiesAt(String relPath, String... names) {
+    return new RenderProjection(put(properties, relPath, ImmutableSet.copyOf(names)), embedded, maxDepth, maxItems);
+  }
+
+  public RenderProjection withAllProperties() {
+    return new RenderProjection(remove(properties, ROOT), embedded, maxDepth, maxItems);
+  }
+
+  public RenderProjection withEmbedded(Embedded embedded) {
+    return new RenderProjection(properties, embedded, maxDepth, maxItems);
+  }
+
+  /**
+   * Render embedded resources at most this many levels deep, zero leaves out {@code _embedded} entirely.
+   */
+  public RenderProjection withMaxDepth(int maxDepth) {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+    }
+    return new RenderProjection(properties, embedded, maxDepth, maxItems);
+  }
+
+  /**
+   * Render at most this many of the resources embedded under the given rel, at any depth.
+   */
+  public RenderProjection withMaxItems(String rel, int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must not be negative: " + count);
+    }
+    return new RenderProjection(properties, embedded, maxDepth, put(maxItems, rel, count));
+  }
+
+  public Embedded getEmbedded() {
+    return embedded;
+  }
+
+  /**
+   * The projection applying to resources embedded under the given rel.
+   */
+  RenderProjection forRel(String rel) {
+    if (properties.isEmpty() && maxDepth == UNLIMITED) {
+      return this;
+    }
+
+    ImmutableMap.Builder<String, ImmutableSet<String>> childProperties = ImmutableMap.builder();
+    for (Map.Entry<String, ImmutableSet<String>> entry : properties.entrySet()) {
+      List<String> path = Splitter.on(SEPARATOR).splitToList(entry.getKey());
+      if (path.size() > 0 && path.get(0).equals(rel)) {
+        childProperties.put(Joiner.on(SEPARATOR).join(path.subList(1, path.size())), entry.getValue());
+      }
+    }
+
+    return new RenderProjection(childProperties.build(), embedded, maxDepth == UNLIMITED ? UNLIMITED : maxDepth - 1,
+                                maxItems);
+  }
+
+  boolean rendersEmbedded() {
+    return embedded != Embedded.SKIP && maxDepth != 0;
+  }
+
+  int maxItems(String rel) {
+    Integer count = maxItems.get(rel);
+    return count != null ? count : Integer.MAX_VALUE;
+  }
+
+  boolean includesProperty(String name) {
+    ImmutableSet<String> names = properties.get(ROOT);
+    return names == null || names.contains(name);
+  }
+
+  private static <V> ImmutableMap<String, V> put(ImmutableMap<String, V> map, String key, V value) {
+    ImmutableMap.Builder<String, V> builder = ImmutableMap.builder();
+    builder.putAll(remove(map, key));
+    builder.put(key, value);
+    return builder.build();
+  }
+
+  private static <V> ImmutableMap<String, V> remove(ImmutableMap<String, V> map, String key) {
+    ImmutableMap.Builder<String, V> builder = ImmutableMap.builder();
+    for (Map.Entry<String, V> entry : map.entrySet()) {
+      if (!entry.getKey().equals(key)) {
+        builder.put(entry);
+      }
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,240 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+import com.theoryinpractise.halbuilder.AbstractRepresentationFactory;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.impl.api.Support;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.theoryinpractise.halbuilder.impl.api.Support.EMBEDDED;
+import static com.theoryinpractise.halbuilder.impl.api.Support.LINKS;
+
+/**
+ * A JsonRepresentationReader which learns the top level field layout of the documents read from each endpoint.
+ *
+ * Documents from one endpoint almost always have the same fields in the same order. Once a layout has been seen,
+ * the next document from that endpoint is streamed against it: each field name is compared with the expected one,
+ * usually by identity as the parser interns field names, and where the links, embedded resources and properties
+ * are is already known, so no root object is built and no field is checked against the reserved names. As soon as
+ * a field differs, the fields read so far are handed to the generic path and the new layout is learnt instead.
+ * Both paths return equal representations.
+ *
+ * Layouts are kept for a bounded number of endpoints, the least recently used are forgotten first. Reads without an
+ * endpoint share a single layout. Readers are thread safe.
+ */
+public class ShapeLearningJsonRepresentationReader
+    extends JsonRepresentationReader {
+
+  private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+
+  private static final String DEFAULT_ENDPOINT = "";
+
+  private final Cache<String, Shape> shapes;
+  private final LongAdder fastPathReads = new LongAdder();
+  private final LongAdder fallbackReads = new LongAdder();
+
+  public ShapeLearningJsonRepresentationReader(AbstractRepresentationFactory representationFactory,
+                                               long maximumEndpoints) {
+    this(representationFactory, maximumEndpoints, false);
+  }
+
+  public ShapeLearningJsonRepresentationReader(AbstractRepresentationFactory representationFactory,
+                                               long maximumEndpoints, boolean deduplicateEmbeds) {
+    super(representationFactory, deduplicateEmbeds);
+    this.shapes = CacheBuilder.newBuilder().maximumSize(maximumEndpoints).build();
+  }
+
+  public PersistentRepresentation read(String endpoint, Reader reader) {
+    try {
+      return read(endpoint, CharStreams.toString(reader));
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Read a UTF-8, UTF-16 or UTF-32 document, which like {@link #read(InputStream)} has no content.
+   */
+  public PersistentRepresentation read(String endpoint, InputStream inputStream) {
+    try {
+      byte[] source = ByteStreams.toByteArray(inputStream);
+      return read(endpoint, source, 0, source.length);
+    } catch (IOException e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  public PersistentRepresentation read(String endpoint, byte[] source, int offset, int length) {
+    try (JsonParser p = JSON_FACTORY.createParser(source, offset, length)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        return super.read(source, offset, length);
+      }
+      Object event = HalFlightRecorder.READ.begin();
+      PersistentRepresentation representation = read(endpoint, p);
+      HalFlightRecorder.READ.commit(event, length, representation, null, null);
+      return representation;
+    } catch (Exception e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  PersistentRepresentation read(String endpoint, String source) {
+    try (JsonParser p = JSON_FACTORY.createParser(source)) {
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        return super.read(source);
+      }
+      Object event = HalFlightRecorder.READ.begin();
+      PersistentRepresentation representation = read(endpoint, p).withContent(source);
+      HalFlightRecorder.READ.commit(event, source.length(), representation, null, null);
+      return representation;
+    } catch (Exception e) {
+      throw new RepresentationException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public PersistentRepresentation read(InputStream inputStream) {
+    return read(DEFAULT_ENDPOINT, inputStream);
+  }
+
+  @Override
+  public PersistentRepresentation read(byte[] source, int offset, int length) {
+    return read(DEFAULT_ENDPOINT, source, offset, length);
+  }
+
+  @Override
+  PersistentRepresentation read(String source) {
+    return read(DEFAULT_ENDPOINT, source);
+  }
+
+  /**
+   * Reads that matched the learnt layout of their endpoint.
+   */
+  public long fastPathCount() {
+    return fastPathReads.sum();
+  }
+
+  /**
+   * Reads that had no learnt layout or differed from it, and went through the generic path.
+   */
+  public long fallbackCount() {
+    return fallbackReads.sum();
+  }
+
+  public void invalidateAll() {
+    shapes.invalidateAll();
+  }
+
+  /**
+   * Read the root object the parser is positioned on.
+   */
+  private PersistentRepresentation read(String endpoint, JsonParser p)
+      throws IOException {
+    Shape shape = shapes.getIfPresent(endpoint);
+    int size = shape != null ? shape.names.length : 0;
+    JsonNode[] values = new JsonNode[size];
+
+    int index = 0;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      if (index == size || !shape.matches(index, p.getCurrentName())) {
+        return fallback(endpoint, p, shape, values, index);
+      }
+      p.nextToken();
+      values[index++] = p.readValueAsTree();
+    }
+    if (shape == null || index < size) {
+      return fallback(endpoint, p, shape, values, index);
+    }
+    fastPathReads.increment();
+
+    JsonNode linksNode = shape.links >= 0 ? values[shape.links] : null;
+    JsonNode embeddedNode = shape.embedded >= 0 ? values[shape.embedded] : null;
+
+    PersistentRepresentation resource = readLinks(linksNode, readNamespaces(linksNode, newResource()));
+
+    Object event = HalFlightRecorder.PROPERTY.begin();
+    for (int i = 0; i < size; i++) {
+      if (!shape.reserved[i]) {
+        resource = resource.withProperty(shape.names[i], propertyValue(values[i]));
+      }
+    }
+    HalFlightRecorder.PROPERTY.commit(event, -1, resource, null, null);
+
+    return readResources(embeddedNode, resource, deduplicateEmbeds ? new HashMap<>() : null);
+  }
+
+  /**
+   * Finish reading the root object as a tree, starting from the fields which matched the layout, and learn its
+   * layout for the next document.
+   */
+  private PersistentRepresentation fallback(String endpoint, JsonParser p, Shape shape, JsonNode[] values,
+                                            int matched)
+      throws IOException {
+    ObjectNode rootNode = MAPPER.getNodeFactory().objectNode();
+    for (int i = 0; i < matched; i++) {
+      rootNode.set(shape.names[i], values[i]);
+    }
+    // The parser is on the first field which differed, or the end of the object
+    while (p.getCurrentToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      p.nextToken();
+      rootNode.set(name, p.readValueAsTree());
+      p.nextToken();
+    }
+    fallbackReads.increment();
+
+    PersistentRepresentation representation = readResource(rootNode);
+    shapes.put(endpoint, new Shape(rootNode));
+    return representation;
+  }
+
+  /**
+   * The top level field names of a document in order, with the positions of its links and embedded resources.
+   */
+  private static final class Shape {
+    final String[] names;
+    final boolean[] reserved;
+    final int links;
+    final int embedded;
+
+    Shape(ObjectNode rootNode) {
+      names = new String[rootNode.size()];
+      reserved = new boolean[names.length];
+      int links = -1;
+      int embedded = -1;
+      Iterator<String> fieldNames = rootNode.fieldNames();
+      for (int i = 0; fieldNames.hasNext(); i++) {
+        names[i] = fieldNames.next();
+        reserved[i] = Support.RESERVED_JSON_PROPERTIES.contains(names[i]);
+        if (LINKS.equals(names[i])) {
+          links = i;
+        } else if (EMBEDDED.equals(names[i])) {
+          embedded = i;
+        }
+      }
+      this.links = links;
+      this.embedded = embedded;
+    }
+
+    boolean matches(int index, String name) {
+      String expected = names[index];
+      return expected == name || expected.equals(name);
+    }
+  }
+
+}
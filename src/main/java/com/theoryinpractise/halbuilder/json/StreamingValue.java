@@ -0,0 +1,110 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A property value whose content is streamed into the output from a source opened at render time, so large text or
+ * binary values never need to be held in memory.
+ *
+ * Text is written as a JSON string, binary content as a base64 encoded string. The source is opened, and closed
+ * again, every time the value is rendered.
+ */
+public final class StreamingValue
+    implements JsonSerializable {
+
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  /**
+   * Opens the content of a streaming value.
+   */
+  @FunctionalInterface
+  public interface Source<T> {
+    T open()
+        throws IOException;
+  }
+
+  private final Source<? extends Reader> text;
+  private final Source<? extends InputStream> binary;
+
+  private StreamingValue(Source<? extends Reader> text, Source<? extends InputStream> binary) {
+    this.text = text;
+    this.binary = binary;
+  }
+
+  public static StreamingValue text(Source<? extends Reader> source) {
+    return new StreamingValue(source, null);
+  }
+
+  public static StreamingValue binary(Source<? extends InputStream> source) {
+    return new StreamingValue(null, source);
+  }
+
+  public static StreamingValue binaryChannel(Source<? extends ReadableByteChannel> source) {
+    return new StreamingValue(null, () -> Channels.newInputStream(source.open()));
+  }
+
+  public void writeTo(JsonGenerator g)
+      throws IOException {
+    if (text != null) {
+      try (Reader reader = text.open()) {
+        writeText(g, reader);
+      }
+    } else {
+      try (InputStream inputStream = binary.open()) {
+        g.writeBinary(inputStream, -1);
+      }
+    }
+  }
+
+  /**
+   * Jackson has no streaming string writes, so the quotes are written as a raw value and the content is escaped one
+   * chunk at a time, the way the generator escapes its own strings.
+   */
+  private static void writeText(JsonGenerator g, Reader reader)
+      throws IOException {
+    JsonEscaper escaper = new JsonEscaper(g);
+    char[] buffer = new char[CHUNK_SIZE];
+
+    g.writeRawValue("\"");
+    int offset = 0;
+    int read;
+    while ((read = reader.read(buffer, offset, buffer.length - offset)) != -1) {
+      int length = offset + read;
+      // Hold back a trailing high surrogate, so a surrogate pair is never split between chunks
+      int chunk = Character.isHighSurrogate(buffer[length - 1]) ? length - 1 : length;
+      if (chunk > 0) {
+        escaper.writeEscaped(buffer, 0, chunk);
+      }
+      offset = length - chunk;
+      if (offset > 0) {
+        buffer[0] = buffer[length - 1];
+      }
+    }
+    if (offset > 0) {
+      escaper.writeEscaped(buffer, 0, offset);
+    }
+    g.writeRaw('"');
+  }
+
+  @Override
+  public void serialize(JsonGenerator g, SerializerProvider serializers)
+      throws IOException {
+    writeTo(g);
+  }
+
+  @Override
+  public void serializeWithType(JsonGenerator g, SerializerProvider serializers, TypeSerializer typeSer)
+      throws IOException {
+    writeTo(g);
+  }
+
+}
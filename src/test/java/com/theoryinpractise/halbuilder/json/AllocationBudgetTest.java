@@ -0,0 +1,117 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.io.CharStreams;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import javaslang.collection.HashSet;
+import org.testng.Reporter;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Fails when reading or writing the shared fixtures allocates more than the budgets in allocation-budgets.properties.
+ *
+ * Every measurement is reported. Run with {@code -Dallocation.budgets.record=<file>} to also write budgets of twice
+ * the measured cost to that file, in the format of allocation-budgets.properties.
+ */
+public class AllocationBudgetTest {
+
+  private static final int WARMUP = 2000;
+  private static final int ITERATIONS = 2000;
+
+  private final Properties budgets = new Properties();
+
+  private final Map<String, Long> measured = new TreeMap<>();
+
+  private final JsonRepresentationReader reader = new JsonRepresentationReader(new JsonRepresentationFactory());
+
+  private final JsonRepresentationWriter writer = new JsonRepresentationWriter();
+
+  @BeforeClass
+  public void loadBudgets()
+      throws IOException {
+    try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+      budgets.load(in);
+    }
+  }
+
+  @DataProvider
+  public Object[][] fixtures() {
+    return new Object[][]{
+        {"example.json"},
+        {"exampleWithNullProperty.json"},
+        {"exampleWithSubresource.json"},
+        {"exampleWithMultipleNestedSubresources.json"},
+        };
+  }
+
+  private String source(String fixture)
+      throws IOException {
+    return Resources.toString(AllocationBudgetTest.class.getResource("/" + fixture), UTF_8);
+  }
+
+  private long budget(String key) {
+    String value = budgets.getProperty(key);
+    assertThat(value).named("budget for " + key).isNotNull();
+    return Long.parseLong(value.trim());
+  }
+
+  @Test(dataProvider = "fixtures")
+  public void testReadAllocations(String fixture)
+      throws IOException {
+    String source = source(fixture);
+
+    long allocated = Allocations.bytesPerOperation(WARMUP, ITERATIONS, () -> reader.read(new StringReader(source)));
+
+    assertWithinBudget("read." + fixture, allocated);
+  }
+
+  @Test(dataProvider = "fixtures")
+  public void testWriteAllocations(String fixture)
+      throws IOException {
+    ReadableRepresentation representation = reader.read(new StringReader(source(fixture)));
+
+    long allocated = Allocations.bytesPerOperation(WARMUP, ITERATIONS,
+        () -> writer.write(representation, HashSet.empty(), CharStreams.nullWriter()));
+
+    assertWithinBudget("write." + fixture, allocated);
+  }
+
+  private void assertWithinBudget(String key, long allocated) {
+    measured.put(key, allocated);
+    long budget = budget(key);
+    Reporter.log(String.format("%s: %,d bytes allocated, budget %,d", key, allocated, budget), true);
+    assertThat(allocated).named("bytes allocated for " + key).isAtMost(budget);
+  }
+
+  @AfterClass(alwaysRun = true)
+  public void recordBudgets()
+      throws IOException {
+    String file = System.getProperty("allocation.budgets.record");
+    if (file == null || measured.isEmpty()) {
+      return;
+    }
+    StringBuilder recorded = new StringBuilder();
+    for (Map.Entry<String, Long> entry : measured.entrySet()) {
+      // Twice the measured cost, rounded up to a whole kilobyte
+      long budget = (entry.getValue() * 2 + 1023) / 1024 * 1024;
+      recorded.append(entry.getKey()).append('=').append(budget).append('\n');
+    }
+    Files.write(Paths.get(file), recorded.toString().getBytes(UTF_8));
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.theoryinpractise.halbuilder.json;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures the bytes allocated by the current thread, using the HotSpot specific ThreadMXBean.
+ */
+public final class Allocations {
+
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private Allocations() {
+  }
+
+  /**
+   * Run the given action after a number of warm up iterations, returning the mean bytes allocated per iteration.
+   */
+  public static long bytesPerOperation(int warmup, int iterations, Runnable action) {
+    for (int i = 0; i < warmup; i++) {
+      action.run();
+    }
+
+    long threadId = Thread.currentThread().getId();
+    long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; i++) {
+      action.run();
+    }
+    long after = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+
+    return (after - before) / iterations;
+  }
+
+}
@@ -0,0 +1,129 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.control.Option;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class ByteReadsTest {
+
+  private static final String NAME = "caf\u00e9 \ud83d\ude00";
+  private static final String JSON =
+      "{\"_links\":{\"self\":{\"href\":\"/customer/1\"}},\"name\":\"" + NAME + "\"}";
+
+  private final JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  @DataProvider
+  public Object[][] provideEncodings() {
+    return new Object[][]{
+        {"UTF-8", ""},
+        {"UTF-8", "\ufeff"},
+        {"UTF-16BE", ""},
+        {"UTF-16LE", "\ufeff"},
+        {"UTF-32BE", ""},
+        {"UTF-32LE", "\ufeff"},
+        };
+  }
+
+  @DataProvider
+  public Object[][] provideReaders() {
+    return new Object[][]{
+        {new JsonRepresentationReader(representationFactory)},
+        {new CachingJsonRepresentationReader(representationFactory, 1 << 20)},
+        {new ParallelJsonRepresentationReader(representationFactory, false, ForkJoinPool.commonPool(), 0)},
+        {new ShapeLearningJsonRepresentationReader(representationFactory, 16)},
+        };
+  }
+
+  private static void assertCustomer(ReadableRepresentation representation) {
+    assertThat(representation.getResourceLink().get().getHref()).isEqualTo("/customer/1");
+    assertThat(representation.getValue("name")).isEqualTo(some(NAME));
+  }
+
+  @Test(dataProvider = "provideEncodings")
+  public void testReadInputStream(String encoding, String bom)
+      throws Exception {
+    byte[] source = (bom + JSON).getBytes(encoding);
+
+    assertCustomer(representationFactory.readRepresentation(RepresentationFactory.HAL_JSON,
+                                                            new ByteArrayInputStream(source)));
+  }
+
+  @Test(dataProvider = "provideEncodings")
+  public void testReadByteArrayRange(String encoding, String bom)
+      throws Exception {
+    byte[] document = (bom + JSON).getBytes(encoding);
+    byte[] source = new byte[document.length + 8];
+    System.arraycopy(document, 0, source, 4, document.length);
+
+    assertCustomer(representationFactory.readRepresentation(RepresentationFactory.HAL_JSON, source, 4,
+                                                            document.length));
+  }
+
+  @Test(dataProvider = "provideEncodings")
+  public void testDecodeMatchesByteRead(String encoding, String bom)
+      throws Exception {
+    byte[] source = (bom + JSON).getBytes(encoding);
+
+    assertThat(JsonRepresentationReader.decode(source, 0, source.length)).isEqualTo(JSON);
+  }
+
+  @Test
+  public void testReadHeapAndDirectBuffers() {
+    byte[] document = JSON.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer heap = ByteBuffer.wrap(document);
+    ByteBuffer direct = ByteBuffer.allocateDirect(document.length);
+    direct.put(document).flip();
+
+    assertCustomer(representationFactory.readRepresentation(RepresentationFactory.HAL_JSON, heap));
+    assertCustomer(representationFactory.readRepresentation(RepresentationFactory.HAL_JSON, direct));
+    assertThat(heap.remaining()).isEqualTo(document.length);
+    assertThat(direct.remaining()).isEqualTo(document.length);
+  }
+
+  @Test(dataProvider = "provideReaders")
+  public void testByteReadsHaveNoContentAndLeaveTheStreamOpen(JsonRepresentationReader reader) {
+    AtomicBoolean closed = new AtomicBoolean();
+    byte[] source = JSON.getBytes(StandardCharsets.UTF_8);
+    InputStream inputStream = new ByteArrayInputStream(source) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+
+    ReadableRepresentation representation = reader.read(inputStream);
+
+    assertCustomer(representation);
+    assertThat(representation.getContent()).isEqualTo(Option.none());
+    assertThat(reader.read(source, 0, source.length).getContent()).isEqualTo(Option.none());
+    assertThat(reader.read(new StringReader(JSON)).getContent()).isEqualTo(some(JSON));
+    assertThat(closed.get()).isFalse();
+  }
+
+  @Test
+  public void testCachedByteReadsShareRepresentation() {
+    JsonRepresentationFactory cachingFactory = new JsonRepresentationFactory().withCachedReads(1 << 20);
+    byte[] source = JSON.getBytes(StandardCharsets.UTF_8);
+
+    ReadableRepresentation first = cachingFactory.readRepresentation(RepresentationFactory.HAL_JSON, source, 0,
+                                                                     source.length);
+    ReadableRepresentation second = cachingFactory.readRepresentation(RepresentationFactory.HAL_JSON,
+                                                                      new ByteArrayInputStream(source));
+
+    assertThat(second).isSameAs(first);
+  }
+
+}
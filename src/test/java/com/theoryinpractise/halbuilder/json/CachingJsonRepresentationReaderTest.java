@@ -0,0 +1,84 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.truth.Truth.assertThat;
+
+public class CachingJsonRepresentationReaderTest {
+
+  private String fixture(String path)
+      throws IOException {
+    return Resources.toString(CachingJsonRepresentationReaderTest.class.getResource(path), UTF_8);
+  }
+
+  @Test
+  public void testIdenticalDocumentsShareRepresentation()
+      throws IOException {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory().withCachedReads(1 << 20);
+
+    ReadableRepresentation first = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(fixture("/example.json")));
+    ReadableRepresentation second = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(fixture("/example.json")));
+    ReadableRepresentation other = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(fixture("/exampleWithSubresource.json")));
+
+    assertThat(second).isSameAs(first);
+    assertThat(other).isNotSameAs(first);
+    assertThat(representationFactory.getReadCacheStats().hitCount()).isEqualTo(1);
+    assertThat(representationFactory.getReadCacheStats().missCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testEvictsBeyondMaximumWeight()
+      throws IOException {
+    String example = fixture("/example.json");
+    CachingJsonRepresentationReader reader = new CachingJsonRepresentationReader(
+        new JsonRepresentationFactory(), example.length());
+
+    ReadableRepresentation first = reader.read(new StringReader(example));
+    reader.read(new StringReader(fixture("/exampleWithSubresource.json")));
+
+    assertThat(reader.read(new StringReader(example))).isNotSameAs(first);
+    assertThat(reader.stats().evictionCount()).isAtLeast(1L);
+  }
+
+  @Test
+  public void testUncachedFactoryHasEmptyStats() {
+    assertThat(new JsonRepresentationFactory().getReadCacheStats().requestCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testCollisionsAreCountedAsMisses() {
+    // Adler-32 can't tell these apart, the changed bytes cancel out in both of its sums
+    CachingJsonRepresentationReader reader = new CachingJsonRepresentationReader(
+        new JsonRepresentationFactory(), 1024, false, Hashing.adler32());
+    String first = "{\"name\":\"bbbb\"}";
+    String colliding = "{\"name\":\"caac\"}";
+
+    ReadableRepresentation representation = reader.read(new StringReader(first));
+    ReadableRepresentation other = reader.read(new StringReader(colliding));
+
+    assertThat(other).isNotSameAs(representation);
+    assertThat(other.getValue("name").get()).isEqualTo("caac");
+    assertThat(reader.read(new StringReader(colliding))).isNotSameAs(other);
+    assertThat(reader.read(new StringReader(first))).isSameAs(representation);
+    assertThat(reader.stats().hitCount()).isEqualTo(1);
+    assertThat(reader.stats().missCount()).isEqualTo(3);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class)
+  public void testInvalidDocumentsAreNotCached() {
+    new CachingJsonRepresentationReader(new JsonRepresentationFactory(), 1024).read(new StringReader("!!!"));
+  }
+
+}
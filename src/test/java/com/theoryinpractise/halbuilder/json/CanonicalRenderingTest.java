@@ -0,0 +1,82 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import javaslang.collection.Set;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class CanonicalRenderingTest {
+
+  private static final String BASE_URL = "https://example.com/api/";
+
+  private static final Set<URI> CANONICAL = HashSet.of(JsonRepresentationWriter.CANONICAL);
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory()
+      .withNamespace("ns", BASE_URL + "apidocs/ns/{rel}");
+
+  private final JsonRepresentationWriter writer = new JsonRepresentationWriter();
+
+  private ReadableRepresentation user(String id) {
+    return representationFactory.newRepresentation(BASE_URL + "user/" + id).withProperty("id", id);
+  }
+
+  @Test
+  public void testInsertionOrderDoesNotChangeOutput() {
+    ReadableRepresentation first = representationFactory.newRepresentation(BASE_URL + "customer/1")
+                                                        .withLink("ns:users", BASE_URL + "customer/1?users")
+                                                        .withLink("ns:orders", BASE_URL + "customer/1?orders")
+                                                        .withProperty("name", "Example Resource")
+                                                        .withProperty("age", 33)
+                                                        .withProperty("balance", 1.50d)
+                                                        .withRepresentation("ns:user", user("11"))
+                                                        .withRepresentation("ns:admin", user("12"));
+
+    ReadableRepresentation second = representationFactory.newRepresentation(BASE_URL + "customer/1")
+                                                         .withRepresentation("ns:admin", user("12"))
+                                                         .withRepresentation("ns:user", user("11"))
+                                                         .withProperty("balance", new BigDecimal("15E-1"))
+                                                         .withProperty("age", 33)
+                                                         .withProperty("name", "Example Resource")
+                                                         .withLink("ns:orders", BASE_URL + "customer/1?orders")
+                                                         .withLink("ns:users", BASE_URL + "customer/1?users");
+
+    String canonical = writer.writeToString(first, CANONICAL);
+
+    assertThat(writer.writeToString(second, CANONICAL)).isEqualTo(canonical);
+    assertThat(canonical).contains("\"age\":33,\"balance\":1.5,\"name\":\"Example Resource\"");
+    assertThat(canonical.indexOf("ns:orders")).isLessThan(canonical.indexOf("ns:users"));
+    assertThat(canonical.indexOf("ns:admin")).isLessThan(canonical.indexOf("ns:user\""));
+  }
+
+  @Test
+  public void testNumberNormalization() {
+    ReadableRepresentation representation = representationFactory.newRepresentation()
+                                                                  .withProperty("a", 1.0d)
+                                                                  .withProperty("b", new BigDecimal("1.2300"))
+                                                                  .withProperty("c", 2.5f)
+                                                                  .withProperty("d", new BigDecimal("1E+3"));
+
+    assertThat(writer.writeToString(representation, CANONICAL)).endsWith("\"a\":1,\"b\":1.23,\"c\":2.5,\"d\":1000}");
+  }
+
+  @Test
+  public void testStreamingHashMatchesOutput() {
+    ReadableRepresentation representation = user("11");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    HashCode hash = writer.writeHashed(representation, CANONICAL, bytes, Hashing.sha256());
+
+    assertThat(hash).isEqualTo(Hashing.sha256().hashBytes(bytes.toByteArray()));
+    assertThat(writer.writeHashed(user("11"), CANONICAL, new ByteArrayOutputStream(), Hashing.sha256())).isEqualTo(hash);
+  }
+
+}
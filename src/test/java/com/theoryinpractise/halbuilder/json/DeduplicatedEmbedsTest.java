@@ -0,0 +1,73 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class DeduplicatedEmbedsTest {
+
+  private static final String AUTHOR = "{\"_links\":{\"self\":{\"href\":\"/author/1\"}},\"name\":\"Jane\"}";
+  private static final String ANONYMOUS = "{\"name\":\"Jane\"}";
+
+  private static String feed(String... authors) {
+    StringBuilder json = new StringBuilder("{\"_links\":{\"self\":{\"href\":\"/feed\"}},\"_embedded\":{\"articles\":[");
+    for (int i = 0; i < authors.length; i++) {
+      json.append(i > 0 ? "," : "")
+          .append("{\"_links\":{\"self\":{\"href\":\"/article/").append(i).append("\"}},")
+          .append("\"_embedded\":{\"author\":").append(authors[i]).append("}}");
+    }
+    return json.append("]}}").toString();
+  }
+
+  private static ReadableRepresentation author(ReadableRepresentation feed, int article) {
+    return feed.getResourcesByRel("articles").get(article).getResourcesByRel("author").get(0);
+  }
+
+  @Test
+  public void testIdenticalEmbedsAreShared() {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory().withDeduplicatedEmbeds();
+
+    ReadableRepresentation feed = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(feed(AUTHOR, AUTHOR, AUTHOR)));
+
+    assertThat(author(feed, 1)).isSameAs(author(feed, 0));
+    assertThat(author(feed, 2)).isSameAs(author(feed, 0));
+    assertThat(author(feed, 0).getValue("name")).isEqualTo(some("Jane"));
+  }
+
+  @Test
+  public void testDifferentContentIsNotShared() {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory().withDeduplicatedEmbeds();
+    String renamed = AUTHOR.replace("Jane", "John");
+
+    ReadableRepresentation feed = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(feed(AUTHOR, renamed)));
+
+    assertThat(author(feed, 1)).isNotSameAs(author(feed, 0));
+    assertThat(author(feed, 1).getValue("name")).isEqualTo(some("John"));
+  }
+
+  @Test
+  public void testEmbedsWithoutSelfLinkAreNotShared() {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory().withDeduplicatedEmbeds();
+
+    ReadableRepresentation feed = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(feed(ANONYMOUS, ANONYMOUS)));
+
+    assertThat(author(feed, 1)).isNotSameAs(author(feed, 0));
+  }
+
+  @Test
+  public void testNotSharedByDefault() {
+    ReadableRepresentation feed = new JsonRepresentationFactory().readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(feed(AUTHOR, AUTHOR)));
+
+    assertThat(author(feed, 1)).isNotSameAs(author(feed, 0));
+  }
+
+}
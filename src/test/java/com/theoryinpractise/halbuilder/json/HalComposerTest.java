@@ -0,0 +1,144 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.testng.Assert.expectThrows;
+
+public class HalComposerTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private byte[] fixture(String path)
+      throws IOException {
+    return Resources.toByteArray(HalComposerTest.class.getResource(path));
+  }
+
+  private ReadableRepresentation outer(String roleNamespace) {
+    return new JsonRepresentationFactory().withNamespace("ns", "https://example.com/apidocs/ns/{rel}")
+                                          .withNamespace("role", roleNamespace)
+                                          .newRepresentation("https://example.com/api/dashboard")
+                                          .withProperty("title", "Dashboard");
+  }
+
+  private JsonNode compose(HalComposer composer)
+      throws IOException {
+    StringWriter writer = new StringWriter();
+    composer.write(HashSet.empty(), writer);
+    return mapper.readTree(writer.toString());
+  }
+
+  @Test
+  public void testEmbedsUpstreamBodiesInCompletionOrder()
+      throws IOException {
+    CompletableFuture<InputStream> slow = new CompletableFuture<>();
+    InputStream fast = new ByteArrayInputStream(fixture("/exampleWithSubresource.json")) {
+      @Override
+      public void close() {
+        // Only completes once the fast body has been copied, which has to come first
+        slow.complete(HalComposerTest.class.getResourceAsStream("/example.json"));
+      }
+    };
+
+    HalComposer composer = new HalComposer(outer("https://example.com/apidocs/role/{rel}"))
+        .embed("ns:customer", slow)
+        .embed("ns:customer", fast)
+        .embed("ns:profile", ByteBuffer.wrap(fixture("/example.json")));
+
+    JsonNode json = compose(composer);
+
+    assertThat(json.get("title").asText()).isEqualTo("Dashboard");
+    assertThat(json.get("_embedded").get("ns:customer").size()).isEqualTo(2);
+    assertThat(json.get("_embedded").get("ns:customer").get(0).has("_embedded")).isTrue();
+    assertThat(json.get("_embedded").get("ns:profile").get("name").asText()).isEqualTo("Example Resource");
+    assertThat(json.get("_links").get("self").get("href").asText()).isEqualTo("https://example.com/api/dashboard");
+  }
+
+  @Test
+  public void testHoistsCompatibleCuries()
+      throws IOException {
+    JsonNode json = compose(new HalComposer(outer("https://example.com/apidocs/role/{rel}"))
+                                .embed("ns:profile", fixture("/example.json")));
+
+    assertThat(json.get("_embedded").get("ns:profile").get("_links").has("curies")).isFalse();
+    assertThat(json.get("_links").get("curies").size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testHoistsSingleCurieAsArray()
+      throws IOException {
+    ReadableRepresentation outer = new JsonRepresentationFactory().newRepresentation("https://example.com/api/dashboard");
+    byte[] body = ("{\"_links\":{\"curies\":{\"name\":\"ns\",\"href\":\"https://example.com/apidocs/ns/{rel}\","
+                   + "\"templated\":true},\"self\":{\"href\":\"https://example.com/api/profile\"}}}")
+                       .getBytes(StandardCharsets.UTF_8);
+
+    JsonNode json = compose(new HalComposer(outer).embed("ns:profile", body));
+
+    assertThat(json.get("_embedded").get("ns:profile").get("_links").has("curies")).isFalse();
+    assertThat(json.get("_links").get("curies").isArray()).isTrue();
+    assertThat(json.get("_links").get("curies").get(0).get("name").asText()).isEqualTo("ns");
+  }
+
+  @Test
+  public void testKeepsClashingCuriesInPlace()
+      throws IOException {
+    JsonNode json = compose(new HalComposer(outer("https://other.example.com/role/{rel}"))
+                                .embed("ns:profile", fixture("/example.json")));
+
+    assertThat(json.get("_embedded").get("ns:profile").get("_links").get("curies").size()).isEqualTo(2);
+    assertThat(json.get("_links").get("curies").size()).isEqualTo(2);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class)
+  public void testFailedUpstream() {
+    CompletableFuture<InputStream> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IOException("upstream unavailable"));
+
+    new HalComposer(outer("https://example.com/apidocs/role/{rel}"))
+        .embed("ns:profile", failed)
+        .embed("ns:other", new ByteArrayInputStream("{}".getBytes()))
+        .write(HashSet.empty(), new StringWriter());
+  }
+
+  @Test
+  public void testFailedUpstreamLeavesAnIncompleteDocumentAndClosesBodies()
+      throws IOException {
+    CompletableFuture<InputStream> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new IOException("upstream unavailable"));
+    AtomicBoolean closed = new AtomicBoolean();
+    InputStream unread = new ByteArrayInputStream("{}".getBytes()) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+    StringWriter output = new StringWriter();
+
+    expectThrows(RepresentationException.class, () -> new HalComposer(outer("https://example.com/apidocs/role/{rel}"))
+        .embed("ns:profile", failed)
+        .embed("ns:other", unread)
+        .write(HashSet.empty(), output));
+
+    assertThat(output.toString()).startsWith("{\"title\":\"Dashboard\"");
+    expectThrows(JsonProcessingException.class, () -> mapper.readTree(output.toString()));
+    assertThat(closed.get()).isTrue();
+  }
+
+}
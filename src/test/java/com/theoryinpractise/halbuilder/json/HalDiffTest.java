@@ -0,0 +1,160 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.Representation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HalDiffTest {
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final HalDiff diff = new HalDiff();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private Representation customer(String name) {
+    return representationFactory.newRepresentation("/customer/1")
+                                .withLink("orders", "/customer/1/orders")
+                                .withProperty("name", name)
+                                .withProperty("age", 33);
+  }
+
+  private Representation order(int id, int total) {
+    return representationFactory.newRepresentation("/order/" + id).withProperty("total", total);
+  }
+
+  private JsonNode jsonPatch(ReadableRepresentation from, ReadableRepresentation to)
+      throws IOException {
+    StringWriter output = new StringWriter();
+    diff.writeJsonPatch(from, to, HashSet.empty(), output);
+    return mapper.readTree(output.toString());
+  }
+
+  private JsonNode mergePatch(ReadableRepresentation from, ReadableRepresentation to)
+      throws IOException {
+    StringWriter output = new StringWriter();
+    diff.writeMergePatch(from, to, HashSet.empty(), output);
+    return mapper.readTree(output.toString());
+  }
+
+  private JsonNode json(String json)
+      throws IOException {
+    return mapper.readTree(json.replace('\'', '"'));
+  }
+
+  @Test
+  public void testIdenticalRepresentations()
+      throws IOException {
+    ReadableRepresentation customer = customer("Jane");
+
+    assertThat(jsonPatch(customer, customer)).isEqualTo(json("[]"));
+    assertThat(mergePatch(customer, customer("Jane"))).isEqualTo(json("{}"));
+  }
+
+  @Test
+  public void testChangedProperty()
+      throws IOException {
+    assertThat(jsonPatch(customer("Jane"), customer("John")))
+        .isEqualTo(json("[{'op':'replace','path':'/name','value':'John'}]"));
+    assertThat(mergePatch(customer("Jane"), customer("John"))).isEqualTo(json("{'name':'John'}"));
+  }
+
+  @Test
+  public void testAddedAndRemovedProperties()
+      throws IOException {
+    Representation from = customer("Jane").withProperty("nickname", "JJ");
+    Representation to = customer("Jane").withProperty("email", "jane@example.com");
+
+    assertThat(jsonPatch(from, to)).isEqualTo(json("[{'op':'remove','path':'/nickname'},"
+                                                   + "{'op':'add','path':'/email','value':'jane@example.com'}]"));
+    assertThat(mergePatch(from, to)).isEqualTo(json("{'nickname':null,'email':'jane@example.com'}"));
+  }
+
+  @Test
+  public void testChangedLinkRel()
+      throws IOException {
+    Representation to = customer("Jane").withLink("invoices", "/customer/1/invoices");
+
+    assertThat(jsonPatch(customer("Jane"), to))
+        .isEqualTo(json("[{'op':'add','path':'/_links/invoices','value':{'href':'/customer/1/invoices'}}]"));
+    assertThat(mergePatch(customer("Jane"), to))
+        .isEqualTo(json("{'_links':{'invoices':{'href':'/customer/1/invoices'}}}"));
+  }
+
+  @Test
+  public void testEmbeddedResourcesMatchedBySelfLink()
+      throws IOException {
+    Representation from = customer("Jane").withRepresentation("order", order(1, 10))
+                                          .withRepresentation("order", order(2, 20));
+    Representation to = customer("Jane").withRepresentation("order", order(1, 10))
+                                        .withRepresentation("order", order(2, 25));
+
+    assertThat(jsonPatch(from, to)).isEqualTo(json("[{'op':'replace','path':'/_embedded/order/1/total','value':25}]"));
+    assertThat(mergePatch(from, to).get("_embedded").get("order").size()).isEqualTo(2);
+    assertThat(mergePatch(from, to).get("_embedded").get("order").get(1).get("total").asInt()).isEqualTo(25);
+  }
+
+  @Test
+  public void testEmbeddedResourcesWithDifferentSelfLinksAreReplaced()
+      throws IOException {
+    Representation from = customer("Jane").withRepresentation("order", order(1, 10).withProperty("note", "gift"));
+    Representation to = customer("Jane").withRepresentation("order", order(3, 10));
+
+    JsonNode patch = jsonPatch(from, to);
+
+    assertThat(patch.size()).isEqualTo(1);
+    assertThat(patch.get(0).get("op").asText()).isEqualTo("replace");
+    assertThat(patch.get(0).get("path").asText()).isEqualTo("/_embedded/order");
+    assertThat(patch.get(0).get("value").get("_links").get("self").get("href").asText()).isEqualTo("/order/3");
+    assertThat(mergePatch(from, to))
+        .isEqualTo(json("{'_embedded':{'order':{'_links':{'self':{'href':'/order/3'}},'note':null}}}"));
+  }
+
+  @Test
+  public void testRemovedLinkAttribute()
+      throws IOException {
+    Representation from = customer("Jane").withLink("help", "/help", null, "Help", null, null);
+    Representation to = customer("Jane").withLink("help", "/help");
+
+    assertThat(jsonPatch(from, to))
+        .isEqualTo(json("[{'op':'replace','path':'/_links/help','value':{'href':'/help'}}]"));
+    assertThat(mergePatch(from, to)).isEqualTo(json("{'_links':{'help':{'title':null}}}"));
+  }
+
+  @Test
+  public void testRemovedMapPropertyKey()
+      throws IOException {
+    Representation from = customer("Jane").withProperty("address", ImmutableMap.of("city", "Wellington",
+                                                                                   "street", "Cuba Street"));
+    Representation to = customer("Jane").withProperty("address", ImmutableMap.of("city", "Auckland"));
+
+    assertThat(mergePatch(from, to)).isEqualTo(json("{'address':{'city':'Auckland','street':null}}"));
+  }
+
+  @Test
+  public void testUnchangedEmbeddedResourcesAreSkipped()
+      throws IOException {
+    Representation from = customer("Jane").withRepresentation("order", order(1, 10));
+    Representation to = customer("John").withRepresentation("order", order(1, 10));
+
+    assertThat(mergePatch(from, to)).isEqualTo(json("{'name':'John'}"));
+  }
+
+  @Test
+  public void testPointerSegmentsAreEscaped()
+      throws IOException {
+    assertThat(jsonPatch(customer("Jane"), customer("Jane").withProperty("a/b~c", 1)))
+        .isEqualTo(json("[{'op':'add','path':'/a~1b~0c','value':1}]"));
+  }
+
+}
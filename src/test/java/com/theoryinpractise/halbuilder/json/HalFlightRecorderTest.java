@@ -0,0 +1,147 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import javaslang.collection.HashSet;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Flight Recorder is driven reflectively, like {@link HalFlightRecorder} itself, so this still compiles and is
+ * skipped on JVMs without it.
+ */
+public class HalFlightRecorderTest {
+
+  private static final String PREFIX = "com.theoryinpractise.halbuilder.json.";
+
+  private static final String DOCUMENT = "{\"_links\":{\"self\":{\"href\":\"/customer/1\"}},"
+                                         + "\"name\":\"Jane\",\"age\":33,"
+                                         + "\"_embedded\":{\"address\":{\"_links\":{\"self\":{\"href\":\"/customer/1/address\"}},"
+                                         + "\"city\":\"Wellington\"}}}";
+
+  @Test
+  public void testRecordsReadsWritesAndSubEvents()
+      throws Exception {
+    Object recording = startRecording("Read", "Write", "Embedded", "Property");
+    StringWriter output = new StringWriter();
+    try {
+      ShapeLearningJsonRepresentationReader reader = new ShapeLearningJsonRepresentationReader(
+          new JsonRepresentationFactory(), 1);
+      byte[] source = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+      // The first read learns the layout, the second decodes its properties on the fast path
+      reader.read(source, 0, source.length);
+      ReadableRepresentation representation = reader.read(source, 0, source.length);
+
+      new JsonRepresentationWriter().write(representation, HashSet.of(JsonRepresentationWriter.CANONICAL), output);
+    } finally {
+      invoke(recording, "stop");
+    }
+    List<Object> events = readEvents(recording);
+
+    List<Object> reads = eventsNamed(events, "Read");
+    assertThat(reads).hasSize(2);
+    assertThat(value(reads.get(1), "size")).isEqualTo((long) DOCUMENT.length());
+    assertThat(value(reads.get(1), "links")).isEqualTo(1);
+    assertThat(value(reads.get(1), "properties")).isEqualTo(2);
+    assertThat(value(reads.get(1), "embedded")).isEqualTo(1);
+    assertThat(value(reads.get(1), "depth")).isEqualTo(2);
+
+    List<Object> properties = eventsNamed(events, "Property");
+    assertThat(properties).hasSize(1);
+    assertThat(value(properties.get(0), "properties")).isEqualTo(2);
+
+    List<Object> writes = eventsNamed(events, "Write");
+    assertThat(writes).hasSize(1);
+    assertThat(value(writes.get(0), "size")).isEqualTo((long) output.toString().length());
+    assertThat(value(writes.get(0), "flags")).isEqualTo(JsonRepresentationWriter.CANONICAL.toString());
+    assertThat(value(writes.get(0), "depth")).isEqualTo(2);
+
+    List<Object> embedded = eventsNamed(events, "Embedded");
+    assertThat(embedded).hasSize(1);
+    assertThat(value(embedded.get(0), "name")).isEqualTo("address");
+    assertThat(value(embedded.get(0), "properties")).isEqualTo(1);
+  }
+
+  /**
+   * Record the named events with no threshold, including those disabled by default.
+   */
+  private static Object startRecording(String... names)
+      throws Exception {
+    Class<?> flightRecorder;
+    try {
+      flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+    } catch (ClassNotFoundException e) {
+      throw new SkipException("No Flight Recorder on this JVM");
+    }
+    if (!(boolean) flightRecorder.getMethod("isAvailable").invoke(null)) {
+      throw new SkipException("Flight Recorder is not available");
+    }
+    Object recording = Class.forName("jdk.jfr.Recording").getConstructor().newInstance();
+    for (String name : names) {
+      Object settings = invoke(recording, "enable", PREFIX + name);
+      invoke(settings, "withThreshold", Duration.ZERO);
+    }
+    invoke(recording, "start");
+    return recording;
+  }
+
+  private static List<Object> readEvents(Object recording)
+      throws Exception {
+    Path file = Files.createTempFile("hal", ".jfr");
+    try {
+      invoke(recording, "dump", file);
+      invoke(recording, "close");
+      Method readAllEvents = Class.forName("jdk.jfr.consumer.RecordingFile").getMethod("readAllEvents", Path.class);
+      return new ArrayList<>((List<?>) readAllEvents.invoke(null, file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static List<Object> eventsNamed(List<Object> events, String name)
+      throws Exception {
+    List<Object> named = new ArrayList<>();
+    for (Object event : events) {
+      if ((PREFIX + name).equals(invoke(invoke(event, "getEventType"), "getName"))) {
+        named.add(event);
+      }
+    }
+    return named;
+  }
+
+  private static Object value(Object event, String field)
+      throws Exception {
+    return invoke(event, "getValue", field);
+  }
+
+  private static Object invoke(Object target, String name, Object... args)
+      throws Exception {
+    for (Method method : target.getClass().getMethods()) {
+      if (method.getName().equals(name) && method.getParameterCount() == args.length
+          && matches(method.getParameterTypes(), args)) {
+        return method.invoke(target, args);
+      }
+    }
+    throw new NoSuchMethodException(target.getClass().getName() + "." + name);
+  }
+
+  private static boolean matches(Class<?>[] types, Object[] args) {
+    for (int i = 0; i < types.length; i++) {
+      if (!types[i].isInstance(args[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,47 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import com.theoryinpractise.halbuilder.impl.representations.PersistentRepresentation;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class HalJsonModuleTest {
+
+  private final JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final ObjectMapper mapper = new ObjectMapper().registerModule(new HalJsonModule(representationFactory));
+
+  @Test
+  public void testSerializeThroughObjectMapper()
+      throws IOException {
+    ReadableRepresentation representation = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new InputStreamReader(HalJsonModuleTest.class.getResourceAsStream("/example.json")));
+
+    String json = mapper.writeValueAsString(representation);
+
+    assertThat(json).isEqualTo(representation.toString(RepresentationFactory.HAL_JSON));
+  }
+
+  @Test
+  public void testDeserializeThroughObjectMapper()
+      throws IOException {
+    String json = Resources.toString(HalJsonModuleTest.class.getResource("/exampleWithSubresource.json"), Charsets.UTF_8);
+
+    ReadableRepresentation representation = mapper.readValue(json, ReadableRepresentation.class);
+    assertThat(representation.getResourceLink().get().getHref()).isEqualTo("https://example.com/api/customer/123456");
+    assertThat(representation.getResourcesByRel("ns:user")).hasSize(1);
+
+    PersistentRepresentation persistent = mapper.readValue(json, PersistentRepresentation.class);
+    assertThat(persistent.getResourcesByRel("ns:user").get(0).getValue("name")).isEqualTo(some("Example User"));
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HalRewriterTest {
+
+  private static final String UPSTREAM = "https://example.com/";
+  private static final String PUBLIC = "https://api.example.org/";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final HalRewriter rewriter = new HalRewriter()
+      .withHrefs(href -> href.startsWith(UPSTREAM) ? PUBLIC + href.substring(UPSTREAM.length()) : href)
+      .withRels(rel -> "ns:parent".equals(rel) ? null : rel)
+      .withProperties(name -> "age".equals(name) ? null : "name".equals(name) ? "displayName" : name);
+
+  private JsonNode rewrite(String path)
+      throws IOException {
+    StringWriter writer = new StringWriter();
+    rewriter.rewrite(new InputStreamReader(HalRewriterTest.class.getResourceAsStream(path)), writer);
+    return mapper.readTree(writer.toString());
+  }
+
+  @Test
+  public void testRewritesLinksAndProperties()
+      throws IOException {
+    JsonNode json = rewrite("/example.json");
+
+    assertThat(json.get("_links").get("self").get("href").asText()).isEqualTo(PUBLIC + "api/customer/123456");
+    assertThat(json.get("_links").has("ns:parent")).isFalse();
+    assertThat(json.get("_links").get("curies").get(0).get("href").asText()).startsWith(PUBLIC);
+    assertThat(json.has("age")).isFalse();
+    assertThat(json.get("displayName").asText()).isEqualTo("Example Resource");
+  }
+
+  @Test
+  public void testRewritesEmbeddedResources()
+      throws IOException {
+    JsonNode json = rewrite("/exampleWithSubresource.json");
+
+    JsonNode user = json.get("_embedded").get("ns:user");
+    assertThat(user.get("_links").get("self").get("href").asText()).startsWith(PUBLIC);
+    assertThat(user.get("displayName").asText()).isEqualTo("Example User");
+    assertThat(user.has("age")).isFalse();
+  }
+
+  @Test
+  public void testStreamsBytes()
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    rewriter.rewrite(HalRewriterTest.class.getResourceAsStream("/example.json"), bytes);
+
+    assertThat(mapper.readTree(bytes.toByteArray())).isEqualTo(rewrite("/example.json"));
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Expected a link object in 'items' but found VALUE_STRING .*")
+  public void testNonObjectLinkInArrayFails() {
+    rewriter.rewrite(new StringReader("{\"_links\":{\"items\":[{\"href\":\"/a\"},\"/b\",{\"href\":\"/c\"}]}}"),
+                     new StringWriter());
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Expected a resource object in 'items' but found VALUE_NUMBER_INT .*")
+  public void testNonObjectResourceInArrayFails() {
+    rewriter.rewrite(new StringReader("{\"_embedded\":{\"items\":[{\"name\":\"a\"},1,{\"name\":\"b\"}]}}"),
+                     new StringWriter());
+  }
+
+  @Test
+  public void testNullHrefRuleKeepsHref()
+      throws IOException {
+    StringWriter writer = new StringWriter();
+    new HalRewriter().withHrefs(href -> null)
+                     .rewrite(new StringReader("{\"_links\":{\"self\":{\"href\":\"/a\"}}}"), writer);
+
+    assertThat(mapper.readTree(writer.toString()).get("_links").get("self").get("href").asText()).isEqualTo("/a");
+  }
+
+}
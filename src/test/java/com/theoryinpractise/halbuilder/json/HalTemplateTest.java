@@ -0,0 +1,136 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.collect.ImmutableMap;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import com.theoryinpractise.halbuilder.api.Rels;
+import javaslang.collection.HashSet;
+import javaslang.collection.Set;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.theoryinpractise.halbuilder.json.HalTemplate.text;
+import static com.theoryinpractise.halbuilder.json.HalTemplate.value;
+
+public class HalTemplateTest {
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final JsonRepresentationWriter writer = new JsonRepresentationWriter();
+
+  private ReadableRepresentation customer(String id, Object name, Object age) {
+    return representationFactory.newRepresentation("/customer/" + id)
+                                .withLink("orders", "/customer/" + id + "/orders")
+                                .withProperty("name", name)
+                                .withProperty("age", age)
+                                .withRepresentation("address",
+                                                    representationFactory.newRepresentation("/customer/" + id + "/address")
+                                                                         .withProperty("city", "Wellington"));
+  }
+
+  @DataProvider
+  public Object[][] provideFlags() {
+    return new Object[][] {
+        {HashSet.<URI>empty()},
+        {HashSet.of(JsonRepresentationWriter.CANONICAL)},
+        {HashSet.of(RepresentationFactory.COALESCE_LINKS)}
+    };
+  }
+
+  @Test(dataProvider = "provideFlags")
+  public void testTemplateMatchesRenderedRepresentation(Set<URI> flags) {
+    HalTemplate template = HalTemplate.compile(customer(text("id"), value("name"), value("age")), flags, writer);
+
+    Map<String, Object> values = ImmutableMap.of("id", "42", "name", "Jane \"JJ\" Doe", "age", 33);
+
+    String expected = writer.writeToString(customer("42", "Jane \"JJ\" Doe", 33), flags);
+    assertThat(template.renderToString(values)).isEqualTo(expected);
+    assertThat(template.renderToBytes(values)).isEqualTo(expected.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testValueSlotsTakeStructuredValues() {
+    HalTemplate template = HalTemplate.compile(customer("1", value("name"), value("age")), HashSet.empty(), writer);
+
+    String expected = writer.writeToString(customer("1", Arrays.asList("Jane", "Doe"), null), HashSet.empty());
+    Map<String, Object> values = new HashMap<>();
+    values.put("name", Arrays.asList("Jane", "Doe"));
+    values.put("age", null);
+    assertThat(template.renderToString(values)).isEqualTo(expected);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class, expectedExceptionsMessageRegExp = "No value for slot age")
+  public void testMissingSlotValueIsRejected() {
+    HalTemplate template = HalTemplate.compile(customer("1", value("name"), value("age")), HashSet.empty(), writer);
+
+    template.renderToString(ImmutableMap.of("name", "Jane"));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testPrettyPrintIsRejected() {
+    HalTemplate.compile(customer("1", value("name"), 33), HashSet.of(RepresentationFactory.PRETTY_PRINT), writer);
+  }
+
+  private ReadableRepresentation orders(String first, String second) {
+    return representationFactory.newRepresentation("/orders")
+                                .withLink("item", "/order/" + first)
+                                .withLink("item", "/order/" + second);
+  }
+
+  @Test
+  public void testSlottedLinksOfOneRelKeepTheirOrder() {
+    HalTemplate template = HalTemplate.compile(orders(text("first"), text("second")), HashSet.empty(), writer);
+
+    String expected = writer.writeToString(orders("9", "1"), HashSet.empty());
+    assertThat(template.renderToString(ImmutableMap.of("first", "9", "second", "1"))).isEqualTo(expected);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class,
+        expectedExceptionsMessageRegExp = "Canonical templates cannot slot links of rel item, .*")
+  public void testCanonicalSlottedLinksOfOneRelAreRejected() {
+    HalTemplate.compile(orders(text("first"), text("second")), HashSet.of(JsonRepresentationWriter.CANONICAL), writer);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class,
+        expectedExceptionsMessageRegExp = "Templates cannot embed sorted rel item, .*")
+  public void testSortedRelsAreRejected() {
+    ReadableRepresentation prototype = representationFactory.newRepresentation("/orders")
+                                                            .withRel(Rels.sorted("item", "total",
+                                                                (r1, r2) -> r1.getValue("total", 0)
+                                                                              .compareTo(r2.getValue("total", 0))))
+                                                            .withRepresentation("item", order("1", value("first")))
+                                                            .withRepresentation("item", order("2", value("second")));
+
+    HalTemplate.compile(prototype, HashSet.empty(), writer);
+  }
+
+  private ReadableRepresentation order(String id, Object total) {
+    return representationFactory.newRepresentation("/order/" + id).withProperty("total", total);
+  }
+
+  @Test
+  public void testTextSlotsHonourGeneratorEscaping() {
+    JsonRepresentationWriter escapingWriter = new JsonRepresentationWriter() {
+      @Override
+      protected JsonGenerator getJsonGenerator(Set<URI> flags, Writer writer)
+          throws IOException {
+        return super.getJsonGenerator(flags, writer).enable(JsonGenerator.Feature.ESCAPE_NON_ASCII);
+      }
+    };
+    HalTemplate template = HalTemplate.compile(customer(text("id"), "Jane", 33), HashSet.empty(), escapingWriter);
+
+    assertThat(template.renderToString(ImmutableMap.of("id", "caf\u00e9"))).contains("/customer/caf\\u00E9");
+  }
+
+}
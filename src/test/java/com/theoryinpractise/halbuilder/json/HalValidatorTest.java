@@ -0,0 +1,69 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class HalValidatorTest {
+
+  private final HalValidator validator = new HalValidator();
+
+  private List<HalValidator.Violation> validate(String json) {
+    return validator.validate(new StringReader(json.replace('\'', '"')));
+  }
+
+  @Test
+  public void testValidDocument() {
+    assertThat(validate("{'_links':{'self':{'href':'/order/1'},"
+                        + "'curies':[{'name':'ns','href':'/rels/{rel}','templated':true}],"
+                        + "'ns:items':[{'href':'/item/1','title':'One'},{'href':'/item/2'}]},"
+                        + "'total':10,'tags':[{'href':1}],"
+                        + "'_embedded':{'ns:items':[{'_links':{'self':{'href':'/item/1'}}}]}}")).isEmpty();
+  }
+
+  @Test
+  public void testReportsEveryViolationWithPointerAndLocation() {
+    List<HalValidator.Violation> violations = validate(
+        "{'_links':{'self':{'title':'No href'},'curies':{'href':'/rels/{rel}'}},\n"
+        + "'_embedded':{'items':[{'_links':{'next':[{'href':'/2'},{'href':2}]}},\"oops\"],'owner':{'_embedded':[]}}}");
+
+    assertThat(violations).hasSize(5);
+    assertThat(violations.get(0).getPointer()).isEqualTo("/_links/self");
+    assertThat(violations.get(0).getMessage()).isEqualTo("Link has no href");
+    assertThat(violations.get(0).getLine()).isEqualTo(1);
+    assertThat(violations.get(1).getPointer()).isEqualTo("/_links/curies");
+    assertThat(violations.get(1).getMessage()).isEqualTo("CURIE has no name");
+    assertThat(violations.get(2).getPointer()).isEqualTo("/_embedded/items/0/_links/next/1/href");
+    assertThat(violations.get(2).getLine()).isEqualTo(2);
+    assertThat(violations.get(3).getPointer()).isEqualTo("/_embedded/items/1");
+    assertThat(violations.get(3).getMessage()).isEqualTo("Expected a resource object but found a string");
+    assertThat(violations.get(4).getPointer()).isEqualTo("/_embedded/owner/_embedded");
+  }
+
+  @Test
+  public void testReportsMalformedJson() {
+    List<HalValidator.Violation> violations = validate("{'_links':{'self':{'href':'/1'}},'name':}");
+
+    assertThat(violations).hasSize(1);
+    assertThat(violations.get(0).getPointer()).isEqualTo("/name");
+  }
+
+  @Test
+  public void testPointerSegmentsAreEscaped() {
+    List<HalValidator.Violation> violations = validate("{'_links':{'http://example.com/rel~1':{}}}");
+
+    assertThat(violations.get(0).getPointer()).isEqualTo("/_links/http:~1~1example.com~1rel~01");
+  }
+
+  @Test(expectedExceptions = RepresentationException.class, expectedExceptionsMessageRegExp = "Link 'self' has no href")
+  public void testReaderRejectsLinkWithoutHref() {
+    new JsonRepresentationFactory().readRepresentation(RepresentationFactory.HAL_JSON,
+                                                       new StringReader("{\"_links\":{\"self\":{}}}"));
+  }
+
+}
@@ -0,0 +1,123 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.json.InterfaceSatisfactionTest.INamed;
+import com.theoryinpractise.halbuilder.json.InterfaceSatisfactionTest.INothing;
+import com.theoryinpractise.halbuilder.json.InterfaceSatisfactionTest.INullprop;
+import com.theoryinpractise.halbuilder.json.InterfaceSatisfactionTest.IPerson;
+import com.theoryinpractise.halbuilder.json.InterfaceSatisfactionTest.IPersonWithChild;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.InputStreamReader;
+import java.io.StringReader;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class JsonBeanReaderTest {
+
+  private final JsonBeanReader reader = new JsonBeanReader(new JsonRepresentationFactory());
+
+  private <T> T read(String path, Class<T> type) {
+    return reader.read(new InputStreamReader(JsonBeanReaderTest.class.getResourceAsStream(path)), type);
+  }
+
+  @DataProvider
+  public Object[][] providerSatisfactionData() {
+    return new Object[][]{
+        {IPerson.class, true},
+        {INamed.class, true},
+        {InterfaceSatisfactionTest.IJob.class, false},
+        {InterfaceSatisfactionTest.ISimpleJob.class, false},
+        };
+  }
+
+  @Test(dataProvider = "providerSatisfactionData")
+  public void testSimpleInterfaceSatisfaction(Class<?> aClass, boolean shouldBeSatisfied) {
+    try {
+      assertThat(read("/example.json", aClass)).isNotNull();
+      assertThat(shouldBeSatisfied).isTrue();
+    } catch (RepresentationException e) {
+      assertThat(shouldBeSatisfied).isFalse();
+    }
+  }
+
+  @Test
+  public void testClassBinding() {
+    assertThat(read("/example.json", INamed.class).name()).isEqualTo("Example Resource");
+
+    IPerson person = read("/example.json", IPerson.class);
+    assertThat(person.getName()).isEqualTo("Example Resource");
+    assertThat(person.getAge()).isEqualTo(33);
+    assertThat(person.getExpired()).isFalse();
+    assertThat(person.getLinks().isEmpty()).isFalse();
+    assertThat(person.getLinks().filter(l -> l.getRel().equals("ns:parent")).head().getName()).isEqualTo("bob");
+  }
+
+  @Test
+  public void testNullPropertyBinding() {
+    INullprop nullprop = read("/exampleWithNullProperty.json", INullprop.class);
+    assertThat(nullprop).isNotNull();
+    assertThat(nullprop.nullprop()).isNull();
+  }
+
+  @Test
+  public void testGetEmbedded() {
+    INothing resource = read("/exampleWithSubresource.json", INothing.class);
+    assertThat(resource.getEmbedded().isEmpty()).isFalse();
+    assertThat(resource.getEmbedded().get("ns:user").get().head().getValue("name").get()).isEqualTo("Example User");
+  }
+
+  @Test
+  public void testNestedObjectGraph() {
+    IPersonWithChild person = read("/exampleWithNestedObjects.json", IPersonWithChild.class);
+    assertThat(person.getChildren()).isNotEmpty();
+    assertThat(person.getChildren().get(0)).isNotNull();
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Expected a link object but found VALUE_STRING .*")
+  public void testNonObjectLinkInArrayFails() {
+    reader.read(new StringReader("{\"_links\":{\"self\":[{\"href\":\"/a\"},\"/b\",{\"href\":\"/c\"}]},"
+                                 + "\"name\":\"Example Resource\"}"), IPerson.class);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Expected a resource object but found VALUE_NUMBER_INT .*")
+  public void testNonObjectEmbeddedResourceInArrayFails() {
+    reader.read(new StringReader("{\"_embedded\":{\"ns:user\":[{\"name\":\"a\"},1,{\"name\":\"b\"}]}}"),
+                INothing.class);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Expected a resource object but found VALUE_STRING .*")
+  public void testScalarEmbeddedResourceFails() {
+    reader.read(new StringReader("{\"_embedded\":{\"children\":\"x\",\"other\":{\"name\":\"a\"}},"
+                                 + "\"name\":\"Example Resource\"}"), IPersonWithChild.class);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Expected a _links object but found START_ARRAY .*")
+  public void testNonObjectLinksFail() {
+    reader.read(new StringReader("{\"_links\":[{\"href\":\"/a\"}],\"name\":\"Example Resource\"}"),
+                IPerson.class);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class,
+        expectedExceptionsMessageRegExp = "Unable to bind .*IWithArguments, method name is not a property accessor")
+  public void testInterfaceWithUnboundMethodsIsRejected() {
+    reader.read(new StringReader("{\"name\":\"Example Resource\"}"), IWithArguments.class);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class)
+  public void testUnknownFormat() {
+    reader.read(new StringReader("!!!"), INamed.class);
+  }
+
+  public interface IWithArguments {
+    String name();
+
+    String name(String fallback);
+  }
+
+}
@@ -0,0 +1,119 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import javaslang.collection.LinkedHashMap;
+import javaslang.collection.List;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class JsonBeanWriterTest {
+
+  private static final String HREF = "https://example.com/api/customer/123456";
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  public void testBeanMatchesRepresentation()
+      throws IOException {
+
+    ReadableRepresentation representation = representationFactory.newRepresentation(HREF)
+                                                                  .withProperty("id", 123456)
+                                                                  .withProperty("name", "Example Resource");
+
+    StringWriter writer = new StringWriter();
+    new JsonBeanWriter().write(new Customer(123456, "Example Resource"), ICustomer.class, HashSet.<URI>empty(), writer);
+
+    assertThat(mapper.readTree(writer.toString()))
+        .isEqualTo(mapper.readTree(representation.toString(RepresentationFactory.HAL_JSON)));
+  }
+
+  @Test
+  public void testEmbeddedBeans()
+      throws IOException {
+
+    StringWriter writer = new StringWriter();
+    new JsonBeanWriter().write(new Family(), HashSet.<URI>empty(), writer);
+
+    JsonNode json = mapper.readTree(writer.toString());
+    assertThat(json.get("_embedded").get("child").size()).isEqualTo(2);
+    assertThat(json.get("_embedded").get("child").get(1).get("name").asText()).isEqualTo("Two");
+    assertThat(json.get("_embedded").get("child").get(1).get("_links").get("self").get("href").asText())
+        .isEqualTo("https://example.com/api/customer/2");
+  }
+
+  @Test
+  public void testEmbeddedJavaslangMaps()
+      throws IOException {
+
+    StringWriter writer = new StringWriter();
+    new JsonBeanWriter().write(new Household(), HashSet.<URI>empty(), writer);
+
+    JsonNode json = mapper.readTree(writer.toString());
+    assertThat(json.get("_embedded").get("child").size()).isEqualTo(2);
+    assertThat(json.get("_embedded").get("child").get(0).get("name").asText()).isEqualTo("One");
+    assertThat(json.get("_embedded").get("owner").get("id").asInt()).isEqualTo(3);
+  }
+
+  public interface ICustomer {
+    Integer getId();
+
+    String getName();
+
+    List<Link> getLinks();
+  }
+
+  public static class Customer
+      implements ICustomer {
+    private final Integer id;
+    private final String name;
+
+    public Customer(Integer id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    public Integer getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public List<Link> getLinks() {
+      return List.of(new Link("self", "https://example.com/api/customer/" + id, null, null, null, null));
+    }
+
+    public String getInternal() {
+      return "not part of the contract";
+    }
+  }
+
+  public static class Family {
+    public Map<String, java.util.List<Customer>> getEmbedded() {
+      return ImmutableMap.of("child", java.util.Arrays.asList(new Customer(1, "One"), new Customer(2, "Two")));
+    }
+  }
+
+  public static class Household {
+    public javaslang.collection.Map<String, Object> getEmbedded() {
+      return LinkedHashMap.<String, Object>of("child", List.of(new Customer(1, "One"), new Customer(2, "Two")))
+                          .put("owner", new Customer(3, "Three"));
+    }
+  }
+
+}
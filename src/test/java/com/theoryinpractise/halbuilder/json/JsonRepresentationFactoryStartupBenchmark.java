@@ -0,0 +1,101 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.base.Charsets;
+import com.theoryinpractise.halbuilder.api.Representation;
+import org.testng.Reporter;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.theoryinpractise.halbuilder.api.RepresentationFactory.HAL_JSON;
+
+/**
+ * Time from JVM start to the first rendered response, each run in a fresh JVM so no class is loaded beforehand.
+ *
+ * The JVM start time is only known to the millisecond, so the time to the first response is reported in
+ * milliseconds, and the time spent rendering it, measured within the JVM, in microseconds.
+ *
+ * In the {@code benchmark} group, which the default test run excludes. Use
+ * {@code mvn test -Dtest=JsonRepresentationFactoryStartupBenchmark -Dtest.excludedGroups=} to run it.
+ */
+public class JsonRepresentationFactoryStartupBenchmark {
+
+  private static final int RUNS = 5;
+
+  @DataProvider
+  public Object[][] provideWarmUp() {
+    return new Object[][]{
+        {false},
+        {true},
+        };
+  }
+
+  @Test(dataProvider = "provideWarmUp", groups = "benchmark")
+  public void testTimeToFirstResponse(boolean warmUp)
+      throws Exception {
+    long total = 0;
+    long firstResponse = 0;
+    for (int i = 0; i < RUNS; i++) {
+      String[] result = runFreshJvm(warmUp).trim().split(" ");
+      total += Long.parseLong(result[0]);
+      firstResponse += Long.parseLong(result[1]);
+    }
+
+    Reporter.log(String.format("warm up %-5s: %,d ms from JVM start to first response, %,d us rendering it", warmUp,
+        total / RUNS, TimeUnit.NANOSECONDS.toMicros(firstResponse / RUNS)), true);
+    assertThat(total).isGreaterThan(0L);
+  }
+
+  private static String runFreshJvm(boolean warmUp)
+      throws Exception {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    Path result = Files.createTempFile("first-response", ".txt");
+    try {
+      Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+          FirstResponse.class.getName(), String.valueOf(warmUp), result.toString())
+          .inheritIO()
+          .start();
+      assertThat(process.waitFor()).isEqualTo(0);
+      return new String(Files.readAllBytes(result), Charsets.UTF_8);
+    } finally {
+      Files.delete(result);
+    }
+  }
+
+  /**
+   * Writes the milliseconds from JVM start to the first rendered response, and the nanoseconds spent rendering it,
+   * to the given file.
+   */
+  public static final class FirstResponse {
+
+    public static void main(String[] args)
+        throws Exception {
+      JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+      if (Boolean.parseBoolean(args[0])) {
+        representationFactory.warmUp();
+      }
+
+      long request = System.nanoTime();
+      Representation representation = representationFactory.newRepresentation("/customer/123456")
+                                                            .withLink("orders", "/customer/123456/orders")
+                                                            .withProperty("name", "Example Customer")
+                                                            .withProperty("age", 33);
+      String response = representation.toString(HAL_JSON);
+      long end = System.nanoTime();
+      long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+      if (response.isEmpty()) {
+        throw new IllegalStateException("Nothing rendered");
+      }
+      Files.write(Paths.get(args[1]), (sinceStart + " " + (end - request)).getBytes(Charsets.UTF_8));
+    }
+  }
+
+}
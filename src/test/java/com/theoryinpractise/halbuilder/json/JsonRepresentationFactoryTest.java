@@ -0,0 +1,56 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import com.theoryinpractise.halbuilder.api.RepresentationReader;
+import org.testng.annotations.Test;
+
+import java.io.StringReader;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class JsonRepresentationFactoryTest {
+
+  @Test
+  public void testDefaultRendererIsShared() {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+    assertThat(representationFactory.lookupRenderer(RepresentationFactory.HAL_JSON))
+        .isSameAs(new JsonRepresentationFactory().lookupRenderer(RepresentationFactory.HAL_JSON));
+  }
+
+  @Test
+  public void testRegisteredRendererSupplierIsUsed() {
+    JsonRepresentationWriter writer = new JsonRepresentationWriter(false);
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory()
+        .withRenderer(RepresentationFactory.HAL_JSON, () -> writer);
+
+    assertThat(representationFactory.lookupRenderer(RepresentationFactory.HAL_JSON)).isSameAs(writer);
+  }
+
+  @Test
+  public void testRegisteredReaderInstanceIsUsed() {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+    ReadableRepresentation expected = representationFactory.newRepresentation("/expected");
+    RepresentationReader reader = ignored -> expected;
+    representationFactory.withReader(RepresentationFactory.HAL_JSON, reader);
+
+    assertThat(representationFactory.readRepresentation(RepresentationFactory.HAL_JSON, new StringReader("{}")))
+        .isSameAs(expected);
+  }
+
+  @Test
+  public void testWarmUpLeavesFactoryUsable() {
+    JsonRepresentationFactory representationFactory = new JsonRepresentationFactory().warmUp();
+
+    String json = representationFactory.newRepresentation("/customer/1")
+                                       .withProperty("name", "Example")
+                                       .toString(RepresentationFactory.HAL_JSON);
+
+    ReadableRepresentation representation = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new StringReader(json));
+    assertThat(representation.getValue("name")).isEqualTo(some("Example"));
+  }
+
+}
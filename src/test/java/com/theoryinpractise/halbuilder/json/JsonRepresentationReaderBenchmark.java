@@ -0,0 +1,91 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import org.testng.Reporter;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.theoryinpractise.halbuilder.api.RepresentationFactory.HAL_JSON;
+
+/**
+ * Read throughput of a single shared factory under contention.
+ *
+ * In the {@code benchmark} group, which the default test run excludes. Use
+ * {@code mvn test -Dtest=JsonRepresentationReaderBenchmark -Dtest.excludedGroups=} to run it.
+ */
+public class JsonRepresentationReaderBenchmark {
+
+  private static final long DURATION_MILLIS = 5000;
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  @DataProvider
+  public Object[][] provideThreadCounts() {
+    return new Object[][]{
+        {1},
+        {8},
+        {32},
+        };
+  }
+
+  @Test(dataProvider = "provideThreadCounts", groups = "benchmark")
+  public void testReadThroughput(int threads)
+      throws Exception {
+    String source = Resources.toString(JsonRepresentationReaderBenchmark.class.getResource(
+        "/exampleWithMultipleNestedSubresources.json"), Charsets.UTF_8);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Long>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(readUntilDeadline(start, source)));
+      }
+
+      start.countDown();
+
+      long operations = 0;
+      for (Future<Long> result : results) {
+        operations += result.get();
+      }
+
+      Reporter.log(String.format("%2d thread(s): %,d reads/s", threads,
+          operations * TimeUnit.SECONDS.toMillis(1) / DURATION_MILLIS), true);
+      assertThat(operations).isGreaterThan(0L);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Callable<Long> readUntilDeadline(CountDownLatch start, String source) {
+    return () -> {
+      start.await();
+      long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+      long operations = 0;
+      while (System.currentTimeMillis() < deadline) {
+        ReadableRepresentation representation = representationFactory.readRepresentation(HAL_JSON, new StringReader(source));
+        if (!representation.getResourceLink().isDefined()) {
+          throw new IOException("Unexpected representation read");
+        }
+        operations++;
+      }
+      return operations;
+    };
+  }
+
+}
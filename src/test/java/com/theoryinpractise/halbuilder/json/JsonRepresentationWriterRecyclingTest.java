@@ -0,0 +1,93 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import javaslang.collection.Set;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.theoryinpractise.halbuilder.api.RepresentationFactory.HAL_JSON;
+
+public class JsonRepresentationWriterRecyclingTest {
+
+  private static final Set<URI> FLAGS = HashSet.of(RepresentationFactory.PRETTY_PRINT);
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private ReadableRepresentation readFixture() {
+    return representationFactory.readRepresentation(
+        HAL_JSON, new InputStreamReader(JsonRepresentationWriterRecyclingTest.class.getResourceAsStream(
+            "/exampleWithMultipleNestedSubresources.json")));
+  }
+
+  @Test
+  public void testRecyclingProducesIdenticalOutput() {
+    ReadableRepresentation representation = readFixture();
+
+    String expected = new JsonRepresentationWriter().writeToString(representation, FLAGS);
+    JsonRepresentationWriter recyclingWriter = new JsonRepresentationWriter(true);
+
+    // Repeated writes share the same thread local buffer and pretty printer
+    assertThat(recyclingWriter.writeToString(representation, FLAGS)).isEqualTo(expected);
+    assertThat(recyclingWriter.writeToString(representation, FLAGS)).isEqualTo(expected);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    recyclingWriter.write(representation, FLAGS, bytes);
+    assertThat(new String(bytes.toByteArray(), StandardCharsets.UTF_8)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testNestedWritesOnOneThreadDoNotShareState() {
+    JsonRepresentationWriter recyclingWriter = new JsonRepresentationWriter(true);
+    ReadableRepresentation inner = readFixture();
+
+    // Renders another representation with the same writer, on the same thread, in the middle of the outer write
+    JsonSerializable nested = new JsonSerializable.Base() {
+      @Override
+      public void serialize(JsonGenerator g, SerializerProvider serializers)
+          throws IOException {
+        g.writeRawValue(recyclingWriter.writeToString(inner, FLAGS));
+      }
+
+      @Override
+      public void serializeWithType(JsonGenerator g, SerializerProvider serializers, TypeSerializer typeSer)
+          throws IOException {
+        serialize(g, serializers);
+      }
+    };
+    ReadableRepresentation outer = representationFactory.newRepresentation("/outer")
+                                                        .withProperty("nested", nested)
+                                                        .withProperty("after", true);
+
+    String expected = new JsonRepresentationWriter().writeToString(outer, FLAGS);
+
+    assertThat(recyclingWriter.writeToString(outer, FLAGS)).isEqualTo(expected);
+    assertThat(recyclingWriter.writeToString(outer, FLAGS)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testRecyclingAllocatesLess() {
+    ReadableRepresentation representation = readFixture();
+    JsonRepresentationWriter writer = new JsonRepresentationWriter();
+    JsonRepresentationWriter recyclingWriter = new JsonRepresentationWriter(true);
+    int length = writer.writeToString(representation, FLAGS).length();
+
+    long plain = Allocations.bytesPerOperation(1000, 1000, () -> writer.writeToString(representation, FLAGS));
+    long recycled = Allocations.bytesPerOperation(1000, 1000, () -> recyclingWriter.writeToString(representation, FLAGS));
+
+    // The plain writer grows a StringWriter to at least the output length, which the recycled buffer saves
+    assertThat(plain - recycled).isAtLeast((long) length);
+  }
+
+}
@@ -0,0 +1,99 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import javaslang.collection.Set;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class JsonSliceRepresentationTest {
+
+  private final JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final JsonRepresentationReader reader = new JsonRepresentationReader(representationFactory);
+
+  private byte[] fixture(String path)
+      throws IOException {
+    return Resources.toByteArray(JsonSliceRepresentationTest.class.getResource(path));
+  }
+
+  @Test
+  public void testLazyValues()
+      throws IOException {
+    ReadableRepresentation representation = reader.readLazily(fixture("/example.json"));
+
+    assertThat(representation.getValue("name")).isEqualTo(some("Example Resource"));
+    assertThat(representation.getValue("age")).isEqualTo(some(33));
+    assertThat(representation.getValue("expired")).isEqualTo(some(false));
+    assertThat(representation.getValue("missing").isEmpty()).isTrue();
+    assertThat(representation.getContent()).isNotEmpty();
+  }
+
+  @Test
+  public void testLazyNullValues()
+      throws IOException {
+    ReadableRepresentation representation = reader.readLazily(fixture("/exampleWithNullProperty.json"));
+
+    assertThat(representation.getValue("nullprop").isEmpty()).isTrue();
+    assertThat(representation.getProperties().get("nullprop").get().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testEqualityAndHashing() {
+    byte[] source = "{\"_links\":{\"self\":{\"href\":\"/a\"}},\"name\":\"a\"}".getBytes(StandardCharsets.UTF_8);
+    ReadableRepresentation representation = reader.readLazily(source);
+    ReadableRepresentation sameDocument = reader.readLazily(source.clone());
+    ReadableRepresentation otherDocument = reader.readLazily("{\"name\":\"b\"}".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(representation.equals(representation)).isTrue();
+    assertThat(representation.equals(sameDocument)).isTrue();
+    assertThat(representation.hashCode()).isEqualTo(sameDocument.hashCode());
+    assertThat(representation.equals(otherDocument)).isFalse();
+    assertThat(representation.equals(null)).isFalse();
+
+    Map<ReadableRepresentation, String> keyed = new HashMap<>();
+    keyed.put(representation, "a");
+    assertThat(keyed.get(representation)).isEqualTo("a");
+    assertThat(keyed.get(sameDocument)).isEqualTo("a");
+  }
+
+  @Test
+  public void testDelegatesToRepresentation()
+      throws IOException {
+    ReadableRepresentation representation = reader.readLazily(fixture("/exampleWithSubresource.json"));
+
+    assertThat(representation.getResourceLink().get().getHref()).isEqualTo("https://example.com/api/customer/123456");
+    assertThat(representation.getNamespaces()).hasSize(2);
+    assertThat(representation.getCanonicalLinks()).hasSize(3);
+    assertThat(representation.getResourcesByRel("ns:user")).hasSize(1);
+  }
+
+  @Test
+  public void testVerbatimRendering()
+      throws IOException {
+    String path = "/exampleWithMultipleNestedSubresources.json";
+    ReadableRepresentation lazy = reader.readLazily(fixture(path));
+    ReadableRepresentation eager = representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new InputStreamReader(JsonSliceRepresentationTest.class.getResourceAsStream(path)));
+
+    Set<URI> flags = HashSet.empty();
+    JsonRepresentationWriter writer = new JsonRepresentationWriter();
+
+    ObjectMapper mapper = new ObjectMapper();
+    assertThat(mapper.readTree(writer.writeToString(lazy, flags)))
+        .isEqualTo(mapper.readTree(writer.writeToString(eager, flags)));
+  }
+
+}
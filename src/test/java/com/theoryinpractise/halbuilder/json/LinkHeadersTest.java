@@ -0,0 +1,38 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.Link;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.List;
+import org.testng.annotations.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LinkHeadersTest {
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory()
+      .withNamespace("ns", "https://example.com/apidocs/ns/{rel}");
+
+  @Test
+  public void testFormatsLinkParameters() {
+    Link link = new Link("parent", "https://example.com/api/customer/1234", "bob", "The \"Parent\"", "en", null);
+
+    assertThat(LinkHeaders.format(List.of(link)))
+        .isEqualTo("<https://example.com/api/customer/1234>; rel=\"parent\"; title=\"The \\\"Parent\\\"\"; "
+                   + "hreflang=\"en\"; name=\"bob\"");
+  }
+
+  @Test
+  public void testExpandsCuriesAndSkipsTemplates() {
+    ReadableRepresentation representation = representationFactory.newRepresentation("https://example.com/api/customer/1")
+                                                                  .withLink("ns:users", "https://example.com/api/users")
+                                                                  .withLink("search", "https://example.com/api/search{?q}");
+
+    String header = LinkHeaders.format(representation);
+
+    assertThat(header).contains("<https://example.com/api/customer/1>; rel=\"self\"");
+    assertThat(header).contains("<https://example.com/api/users>; rel=\"https://example.com/apidocs/ns/users\"");
+    assertThat(header).doesNotContain("search");
+  }
+
+}
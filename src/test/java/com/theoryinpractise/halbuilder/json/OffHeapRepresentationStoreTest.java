@@ -0,0 +1,117 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+import static org.testng.Assert.expectThrows;
+
+public class OffHeapRepresentationStoreTest {
+
+  private final JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final JsonRepresentationReader reader = new JsonRepresentationReader(representationFactory);
+
+  private static byte[] document(int id) {
+    // Every document is 48 bytes long
+    return String.format("{\"_links\":{\"self\":{\"href\":\"/item/%03d\"}},\"n\":%d}", id, 100 + id)
+                 .getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testStoredDocumentsAreReadBack() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 1024);
+    store.putJson("/item/1", document(1));
+    store.put("/customer/1", representationFactory.newRepresentation("/customer/1").withProperty("name", "Jane"));
+
+    assertThat(store.get("/item/1").get().getValue("n")).isEqualTo(some(101));
+    assertThat(store.get("/customer/1").get().getResourceLink().get().getHref()).isEqualTo("/customer/1");
+    assertThat(store.get("/customer/1").get().getValue("name")).isEqualTo(some("Jane"));
+    assertThat(store.get("/missing").isDefined()).isFalse();
+    assertThat(store.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testOldestEntriesAreEvictedWhenTheBufferWraps() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 48 * 3 + 10);
+    for (int i = 0; i < 5; i++) {
+      store.putJson("/item/" + i, document(i));
+    }
+
+    assertThat(store.get("/item/0").isDefined()).isFalse();
+    assertThat(store.get("/item/1").isDefined()).isFalse();
+    assertThat(store.get("/item/2").get().getValue("n")).isEqualTo(some(102));
+    assertThat(store.get("/item/4").get().getValue("n")).isEqualTo(some(104));
+    assertThat(store.evictionCount()).isEqualTo(2L);
+    assertThat(store.usedBytes()).isEqualTo(48L * 3);
+  }
+
+  @Test
+  public void testReplacedAndRemovedEntries() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 1024);
+    store.putJson("/item", document(1));
+    store.putJson("/item", document(2));
+
+    assertThat(store.get("/item").get().getValue("n")).isEqualTo(some(102));
+    assertThat(store.usedBytes()).isEqualTo(48L);
+    assertThat(store.remove("/item")).isTrue();
+    assertThat(store.get("/item").isDefined()).isFalse();
+    assertThat(store.usedBytes()).isEqualTo(0L);
+  }
+
+  @Test
+  public void testDocumentsLargerThanTheBufferAreNotStored() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 16);
+
+    assertThat(store.putJson("/item/1", document(1))).isFalse();
+    assertThat(store.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testReadStoresAndReturnsView() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 1024);
+
+    ReadableRepresentation representation = store.read("/item/7", new ByteArrayInputStream(document(7))).get();
+
+    assertThat(representation.getValue("n")).isEqualTo(some(107));
+    assertThat(store.get("/item/7").isDefined()).isTrue();
+  }
+
+  @Test
+  public void testReadOfDocumentsLargerThanTheBufferReturnsNone() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 16);
+
+    assertThat(store.read("/item/7", new ByteArrayInputStream(document(7))).isDefined()).isFalse();
+    assertThat(store.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testViewsOfEvictedEntriesFail() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 48 * 2);
+    store.putJson("/item/0", document(0));
+    ReadableRepresentation representation = store.get("/item/0").get();
+    store.putJson("/item/1", document(1));
+    store.putJson("/item/2", document(2));
+
+    RepresentationException e = expectThrows(RepresentationException.class, () -> representation.getValue("n"));
+    assertThat(e.getMessage()).contains("/item/0");
+  }
+
+  @Test
+  public void testMalformedDocumentsAreNotStored() {
+    OffHeapRepresentationStore store = OffHeapRepresentationStore.allocateDirect(reader, 1024);
+    byte[] truncated = Arrays.copyOf(document(7), 20);
+
+    expectThrows(RepresentationException.class, () -> store.read("/item/7", new ByteArrayInputStream(truncated)));
+
+    assertThat(store.size()).isEqualTo(0);
+    assertThat(store.get("/item/7").isDefined()).isFalse();
+  }
+
+}
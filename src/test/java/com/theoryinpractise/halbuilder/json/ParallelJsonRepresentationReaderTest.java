@@ -0,0 +1,117 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class ParallelJsonRepresentationReaderTest {
+
+  private final JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final ParallelJsonRepresentationReader reader =
+      new ParallelJsonRepresentationReader(representationFactory, false, new ForkJoinPool(4), 0);
+
+  private static String collection(int size) {
+    StringBuilder json = new StringBuilder("{\"_links\":{\"self\":{\"href\":\"/items\"}},\"total\":")
+        .append(size)
+        .append(",\"_embedded\":{\"first\":{\"_links\":{\"self\":{\"href\":\"/items/0\"}}},\"items\":[");
+    for (int i = 0; i < size; i++) {
+      json.append(i > 0 ? "," : "")
+          .append("{\"_links\":{\"self\":{\"href\":\"/items/").append(i).append("\"}},")
+          .append("\"name\":\"item \\\"").append(i).append("\\\" {[\",\"tags\":[\"a\",{\"b\":[1,2]}],")
+          .append("\"_embedded\":{\"owner\":{\"_links\":{\"self\":{\"href\":\"/owner/").append(i % 3)
+          .append("\"}}}}}");
+    }
+    return json.append("]},\"after\":true}").toString();
+  }
+
+  // Braces inside strings, nested objects and whitespace around items
+  private static final String ITEMS = "{ \"_embedded\" : { \"items\" : [\n"
+                                      + "  {\"name\":\"}\\\"}\",\"nested\":{\"a\":{\"b\":\"}}\"}}} ,\n"
+                                      + "  {\"name\":\"{\",\"_embedded\":{\"owner\":{\"name\":\"}\"}}}\n"
+                                      + "] } }";
+
+  private String render(ReadableRepresentation representation) {
+    return representation.toString(RepresentationFactory.HAL_JSON);
+  }
+
+  @Test
+  public void testParallelReadEqualsSerialRead() {
+    String source = collection(1000);
+
+    ReadableRepresentation serial = new JsonRepresentationReader(representationFactory).read(new StringReader(source));
+    ReadableRepresentation parallel = reader.read(new StringReader(source));
+
+    assertThat(parallel.getResourcesByRel("items")).hasSize(1000);
+    assertThat(parallel.getResourcesByRel("items").get(999).getResourceLink().get().getHref())
+        .isEqualTo("/items/999");
+    assertThat(parallel.getValue("after")).isEqualTo(some(true));
+    assertThat(render(parallel)).isEqualTo(render(serial));
+  }
+
+  @Test
+  public void testItemsAreParsedFromTheirExactRange() {
+    ReadableRepresentation serial = new JsonRepresentationReader(representationFactory).read(new StringReader(ITEMS));
+    byte[] utf8 = ("xx" + ITEMS + "xx").getBytes(StandardCharsets.UTF_8);
+
+    for (ReadableRepresentation parallel : Arrays.asList(
+        reader.read(new StringReader(ITEMS)),
+        reader.read(utf8, 2, utf8.length - 4),
+        reader.read(new ByteArrayInputStream(ITEMS.getBytes(StandardCharsets.UTF_16))))) {
+      assertThat(parallel.getResourcesByRel("items")).hasSize(2);
+      assertThat(parallel.getResourcesByRel("items").get(0).getValue("name")).isEqualTo(some("}\"}"));
+      assertThat(render(parallel)).isEqualTo(render(serial));
+    }
+  }
+
+  @Test
+  public void testParallelReadSharesIdenticalEmbeds() {
+    ParallelJsonRepresentationReader deduplicatingReader =
+        new ParallelJsonRepresentationReader(representationFactory, true, new ForkJoinPool(4), 0);
+
+    ReadableRepresentation representation = deduplicatingReader.read(new StringReader(collection(1000)));
+
+    Map<String, ReadableRepresentation> owners = new HashMap<>();
+    for (ReadableRepresentation item : representation.getResourcesByRel("items")) {
+      ReadableRepresentation owner = item.getResourcesByRel("owner").get(0);
+      owners.putIfAbsent(owner.getResourceLink().get().getHref(), owner);
+      assertThat(owner).isSameAs(owners.get(owner.getResourceLink().get().getHref()));
+    }
+    assertThat(owners).hasSize(3);
+  }
+
+  @Test
+  public void testEmptyEmbeddedArray() {
+    String source = "{\"_embedded\":{\"items\":[]},\"total\":0}";
+
+    assertThat(render(reader.read(new StringReader(source))))
+        .isEqualTo(render(new JsonRepresentationReader(representationFactory).read(new StringReader(source))));
+  }
+
+  @Test
+  public void testSmallDocumentsAreReadSerially() {
+    ParallelJsonRepresentationReader defaultReader = new ParallelJsonRepresentationReader(representationFactory);
+
+    ReadableRepresentation representation = defaultReader.read(new StringReader(collection(3)));
+
+    assertThat(representation.getResourcesByRel("items")).hasSize(3);
+  }
+
+  @Test(expectedExceptions = RepresentationException.class)
+  public void testMalformedItemFails() {
+    reader.read(new StringReader("{\"_embedded\":{\"items\":[{\"a\":1},{\"b\":]}}"));
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RawJsonTest {
+
+  private static final String FRAGMENT = "{\"items\":[1,2.50,{\"name\":\"Example\"}],\"empty\":null}";
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final JsonRepresentationWriter writer = new JsonRepresentationWriter();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private ReadableRepresentation representation()
+      throws IOException {
+    return representationFactory.newRepresentation("https://example.com/api/fragment/1")
+                                .withProperty("text", RawJson.of(FRAGMENT))
+                                .withProperty("bytes", RawJson.of(FRAGMENT.getBytes(StandardCharsets.UTF_8)))
+                                .withProperty("tree", mapper.readTree(FRAGMENT))
+                                .withProperty("list", Arrays.asList(RawJson.of("[true]"), "plain"));
+  }
+
+  @Test
+  public void testRawValuesWrittenVerbatim()
+      throws IOException {
+    String json = writer.writeToString(representation(), HashSet.empty());
+
+    assertThat(json).contains("\"text\":" + FRAGMENT);
+    assertThat(json).contains("\"bytes\":" + FRAGMENT);
+    assertThat(json).contains("\"list\":[[true],\"plain\"]");
+  }
+
+  @Test
+  public void testRawValuesWrittenToStreams()
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    writer.write(representation(), HashSet.empty(), bytes);
+
+    JsonNode json = mapper.readTree(bytes.toByteArray());
+    JsonNode fragment = mapper.readTree(FRAGMENT);
+    assertThat(json.get("text")).isEqualTo(fragment);
+    assertThat(json.get("bytes")).isEqualTo(fragment);
+    assertThat(json.get("tree")).isEqualTo(fragment);
+  }
+
+}
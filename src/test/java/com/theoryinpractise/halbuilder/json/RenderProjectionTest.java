@@ -0,0 +1,131 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.Resources;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RenderProjectionTest {
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final JsonRepresentationWriter writer = new JsonRepresentationWriter();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private ReadableRepresentation readFixture(String path) {
+    return representationFactory.readRepresentation(
+        RepresentationFactory.HAL_JSON, new InputStreamReader(RenderProjectionTest.class.getResourceAsStream(path)));
+  }
+
+  private JsonNode render(ReadableRepresentation representation, RenderProjection projection)
+      throws IOException {
+    return mapper.readTree(writer.writeToString(representation, HashSet.empty(), projection));
+  }
+
+  @Test
+  public void testLinksOnly()
+      throws IOException {
+    JsonNode json = render(readFixture("/exampleWithSubresource.json"), RenderProjection.linksOnly());
+
+    assertThat(json.has("_links")).isTrue();
+    assertThat(json.get("_links").get("self").get("href").asText()).isEqualTo("https://example.com/api/customer/123456");
+    assertThat(json.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testSelectedProperties()
+      throws IOException {
+    JsonNode json = render(readFixture("/example.json"), RenderProjection.linksOnly().withProperties("name"));
+
+    assertThat(json.get("name").asText()).isEqualTo("Example Resource");
+    assertThat(json.has("age")).isFalse();
+    assertThat(json.has("_links")).isTrue();
+  }
+
+  @Test
+  public void testLazyRepresentationSelectedProperties()
+      throws IOException {
+    ReadableRepresentation representation = new JsonRepresentationReader(new JsonRepresentationFactory())
+        .readLazily(Resources.toByteArray(RenderProjectionTest.class.getResource("/example.json")));
+
+    JsonNode json = render(representation, RenderProjection.linksOnly().withProperties("age"));
+
+    assertThat(json.get("age").asInt()).isEqualTo(33);
+    assertThat(json.has("name")).isFalse();
+  }
+
+  @Test
+  public void testEmbeddedSelfLinks()
+      throws IOException {
+    ReadableRepresentation representation = readFixture("/exampleWithSubresource.json");
+    JsonNode json = render(representation, RenderProjection.FULL.withEmbedded(RenderProjection.Embedded.SELF_LINKS));
+
+    JsonNode user = json.get("_embedded").get("ns:user");
+    assertThat(json.has("name")).isTrue();
+    assertThat(user.get("_links").get("self").get("href").asText())
+        .isEqualTo(representation.getResourcesByRel("ns:user").head().getResourceLink().get().getHref());
+    assertThat(user.has("name")).isFalse();
+  }
+
+  private ReadableRepresentation order(int id) {
+    return representationFactory.newRepresentation("https://example.com/api/order/" + id)
+                                .withProperty("id", id)
+                                .withProperty("total", id * 10)
+                                .withRepresentation("address", representationFactory
+                                    .newRepresentation("https://example.com/api/address/" + id)
+                                    .withProperty("street", "Example Street")
+                                    .withProperty("city", "Example City"));
+  }
+
+  private ReadableRepresentation customer() {
+    return representationFactory.newRepresentation("https://example.com/api/customer/1")
+                                .withProperty("name", "Example Customer")
+                                .withRepresentation("order", order(1))
+                                .withRepresentation("order", order(2))
+                                .withRepresentation("order", order(3));
+  }
+
+  @Test
+  public void testPropertiesPerRelPath()
+      throws IOException {
+    JsonNode json = render(customer(), RenderProjection.FULL.withPropertiesAt("order", "id")
+                                                            .withPropertiesAt("order/address", "city"));
+
+    JsonNode order = json.get("_embedded").get("order").get(0);
+    assertThat(json.get("name").asText()).isEqualTo("Example Customer");
+    assertThat(order.has("id")).isTrue();
+    assertThat(order.has("total")).isFalse();
+    assertThat(order.get("_embedded").get("address").has("city")).isTrue();
+    assertThat(order.get("_embedded").get("address").has("street")).isFalse();
+  }
+
+  @Test
+  public void testMaxDepth()
+      throws IOException {
+    JsonNode shallow = render(customer(), RenderProjection.FULL.withMaxDepth(1));
+    assertThat(shallow.get("_embedded").get("order").size()).isEqualTo(3);
+    assertThat(shallow.get("_embedded").get("order").get(0).has("_embedded")).isFalse();
+
+    assertThat(render(customer(), RenderProjection.FULL.withMaxDepth(0)).has("_embedded")).isFalse();
+  }
+
+  @Test
+  public void testMaxItems()
+      throws IOException {
+    JsonNode json = render(customer(), RenderProjection.FULL.withMaxItems("order", 2));
+    assertThat(json.get("_embedded").get("order").size()).isEqualTo(2);
+
+    // Capping the only rel to nothing leaves no _embedded object at all
+    assertThat(render(customer(), RenderProjection.FULL.withMaxItems("order", 0)).has("_embedded")).isFalse();
+  }
+
+}
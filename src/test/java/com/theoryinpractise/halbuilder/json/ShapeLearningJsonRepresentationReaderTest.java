@@ -0,0 +1,113 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationException;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.truth.Truth.assertThat;
+import static javaslang.control.Option.some;
+
+public class ShapeLearningJsonRepresentationReaderTest {
+
+  private final JsonRepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final JsonRepresentationReader genericReader = new JsonRepresentationReader(representationFactory);
+
+  private static String customer(int id) {
+    return "{\"_links\":{\"curies\":{\"name\":\"ns\",\"href\":\"/rels/{rel}\"},\"self\":{\"href\":\"/customer/" + id
+           + "\"},\"ns:orders\":[{\"href\":\"/customer/" + id + "/orders\",\"title\":\"Orders\"}]},"
+           + "\"name\":\"Customer " + id + "\",\"age\":" + (20 + id) + ",\"tags\":[\"a\",{\"b\":null}],"
+           + "\"_embedded\":{\"address\":{\"_links\":{\"self\":{\"href\":\"/address/" + id + "\"}},\"city\":\"Wellington\"}}}";
+  }
+
+  private String render(ReadableRepresentation representation) {
+    return representation.toString(RepresentationFactory.HAL_JSON);
+  }
+
+  @Test
+  public void testLearntLayoutIsReadOnTheFastPath() {
+    ShapeLearningJsonRepresentationReader reader = new ShapeLearningJsonRepresentationReader(representationFactory, 10);
+
+    for (int id = 0; id < 5; id++) {
+      ReadableRepresentation representation = reader.read("/customers", new StringReader(customer(id)));
+
+      assertThat(representation.getValue("age")).isEqualTo(some(20 + id));
+      assertThat(render(representation)).isEqualTo(render(genericReader.read(new StringReader(customer(id)))));
+    }
+
+    assertThat(reader.fallbackCount()).isEqualTo(1);
+    assertThat(reader.fastPathCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void testDifferentLayoutsFallBackAndAreLearnt() {
+    ShapeLearningJsonRepresentationReader reader = new ShapeLearningJsonRepresentationReader(representationFactory, 10);
+
+    String reordered = "{\"age\":21,\"_links\":{\"self\":{\"href\":\"/customer/1\"}},\"name\":\"Customer 1\"}";
+    String missing = "{\"age\":21,\"_links\":{\"self\":{\"href\":\"/customer/1\"}}}";
+    String extra = "{\"age\":21,\"_links\":{\"self\":{\"href\":\"/customer/1\"}},\"name\":\"Customer 1\",\"vip\":true}";
+    String duplicate = "{\"age\":21,\"age\":22,\"name\":\"Customer 1\"}";
+
+    for (String source : new String[] {customer(1), reordered, reordered, missing, extra, duplicate, customer(2)}) {
+      assertThat(render(reader.read("/customers", new StringReader(source))))
+          .isEqualTo(render(genericReader.read(new StringReader(source))));
+    }
+
+    assertThat(reader.fastPathCount()).isEqualTo(1);
+    assertThat(reader.fallbackCount()).isEqualTo(6);
+  }
+
+  @Test
+  public void testLayoutsAreKeptPerEndpoint() {
+    ShapeLearningJsonRepresentationReader reader = new ShapeLearningJsonRepresentationReader(representationFactory, 10);
+    String order = "{\"_links\":{\"self\":{\"href\":\"/order/1\"}},\"total\":10}";
+
+    for (int i = 0; i < 3; i++) {
+      reader.read("/customers", new StringReader(customer(i)));
+      reader.read("/orders", new StringReader(order));
+    }
+
+    assertThat(reader.fallbackCount()).isEqualTo(2);
+    assertThat(reader.fastPathCount()).isEqualTo(4);
+  }
+
+  @Test
+  public void testByteReadsAndContent() {
+    ShapeLearningJsonRepresentationReader reader = new ShapeLearningJsonRepresentationReader(representationFactory, 10);
+    byte[] source = customer(1).getBytes(StandardCharsets.UTF_8);
+
+    reader.read("/customers", new ByteArrayInputStream(source));
+    ReadableRepresentation fromBytes = reader.read("/customers", new ByteArrayInputStream(source));
+    ReadableRepresentation fromChars = reader.read("/customers", new StringReader(customer(1)));
+
+    assertThat(reader.fastPathCount()).isEqualTo(2);
+    assertThat(fromBytes.getContent().isDefined()).isFalse();
+    assertThat(fromChars.getContent()).isEqualTo(some(customer(1)));
+    assertThat(render(fromBytes)).isEqualTo(render(fromChars));
+  }
+
+  @Test
+  public void testFactoryReadsByEndpoint() {
+    JsonRepresentationFactory factory = new JsonRepresentationFactory().withShapeLearningReads(10);
+
+    factory.readRepresentation(RepresentationFactory.HAL_JSON, "/customers", new StringReader(customer(1)));
+    ReadableRepresentation representation =
+        factory.readRepresentation(RepresentationFactory.HAL_JSON, "/customers", new StringReader(customer(2)));
+
+    assertThat(representation.getValue("name")).isEqualTo(some("Customer 2"));
+  }
+
+  @Test(expectedExceptions = RepresentationException.class)
+  public void testMalformedDocumentFails() {
+    ShapeLearningJsonRepresentationReader reader = new ShapeLearningJsonRepresentationReader(representationFactory, 10);
+
+    reader.read("/customers", new StringReader(customer(1)));
+    reader.read("/customers", new StringReader("{\"_links\":{\"self\":{\"href\":\"/customer/1\"}},\"name\":]"));
+  }
+
+}
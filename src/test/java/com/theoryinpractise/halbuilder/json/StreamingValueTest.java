@@ -0,0 +1,106 @@
+package com.theoryinpractise.halbuilder.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.theoryinpractise.halbuilder.api.ReadableRepresentation;
+import com.theoryinpractise.halbuilder.api.RepresentationFactory;
+import javaslang.collection.HashSet;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class StreamingValueTest {
+
+  // Long enough to span several chunks, with a surrogate pair straddling the first chunk boundary
+  private static final String TEXT = Strings.repeat("x", 8 * 1024 - 1) + "\uD83D\uDE00 \"quoted\"\n\ttabbed \u00e9"
+                                     + Strings.repeat("line\n", 5000);
+
+  private final RepresentationFactory representationFactory = new JsonRepresentationFactory();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private ReadableRepresentation representation(byte[] binary) {
+    return representationFactory.newRepresentation("https://example.com/api/document/1")
+                                .withProperty("text", StreamingValue.text(() -> new StringReader(TEXT)))
+                                .withProperty("binary", StreamingValue.binary(() -> new ByteArrayInputStream(binary)))
+                                .withProperty("channel", StreamingValue.binaryChannel(
+                                    () -> Channels.newChannel(new ByteArrayInputStream(binary))));
+  }
+
+  private byte[] binary() {
+    byte[] binary = new byte[100 * 1024];
+    new Random(42).nextBytes(binary);
+    return binary;
+  }
+
+  @Test
+  public void testStreamsToWriter()
+      throws IOException {
+    byte[] binary = binary();
+    JsonNode json = mapper.readTree(new JsonRepresentationWriter().writeToString(representation(binary), HashSet.empty()));
+
+    assertThat(json.get("text").asText()).isEqualTo(TEXT);
+    assertThat(json.get("binary").binaryValue()).isEqualTo(binary);
+    assertThat(json.get("channel").binaryValue()).isEqualTo(binary);
+  }
+
+  @Test
+  public void testStreamsToOutputStream()
+      throws IOException {
+    byte[] binary = binary();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new JsonRepresentationWriter().write(representation(binary),
+                                         HashSet.of(RepresentationFactory.PRETTY_PRINT), bytes);
+
+    JsonNode json = mapper.readTree(bytes.toByteArray());
+    assertThat(json.get("text").asText()).isEqualTo(TEXT);
+    assertThat(json.get("binary").binaryValue()).isEqualTo(binary);
+  }
+
+  @Test
+  public void testHonoursGeneratorEscaping()
+      throws IOException {
+    CharacterEscapes escapeSlashes = new CharacterEscapes() {
+      private final int[] escapes = standardAsciiEscapesForJSON();
+
+      {
+        escapes['/'] = ESCAPE_STANDARD;
+      }
+
+      @Override
+      public int[] getEscapeCodesForAscii() {
+        return escapes;
+      }
+
+      @Override
+      public SerializableString getEscapeSequence(int ch) {
+        return null;
+      }
+    };
+    StringWriter output = new StringWriter();
+    try (JsonGenerator g = mapper.getFactory().createGenerator(output)) {
+      g.enable(JsonGenerator.Feature.ESCAPE_NON_ASCII);
+      g.setCharacterEscapes(escapeSlashes);
+      StreamingValue.text(() -> new StringReader(TEXT + "</script>")).writeTo(g);
+    }
+
+    assertThat(output.toString()).doesNotContain("\u00e9");
+    assertThat(output.toString()).contains("\\u00E9");
+    assertThat(output.toString()).contains("\\uD83D\\uDE00");
+    assertThat(output.toString()).contains("<\\u002Fscript>");
+    assertThat(mapper.readTree(output.toString()).asText()).isEqualTo(TEXT + "</script>");
+  }
+
+}